@@ -1,6 +1,6 @@
 import React, { ChangeEvent, FC, useState } from 'react';
 import { DataFile, Mapping, ValidationResult } from '../types';
-import { suggestMappings, transformData, validateData } from '../services/api';
+import { suggestMappings, transformAndValidate } from '../services/api';
 import ValidationResults from './ValidationResults';
 
 const containerStyle: React.CSSProperties = { padding: 16, border: '1px solid #ddd', borderRadius: 6, marginTop: 16 };
@@ -90,11 +90,9 @@ const MappingTool: FC = () => {
     }
     setLoading(true);
     try {
-      // transform
-      const transformedFile = await transformData(sourceFile, mappings);
+      // transform and validate in a single mapping-service call
+      const { transformed: transformedFile, results } = await transformAndValidate(sourceFile, mappings);
       setTransformed(transformedFile);
-      // validate
-      const results = await validateData(transformedFile);
       setValidationResults(results || []);
     } catch (err: any) {
       console.error(err);
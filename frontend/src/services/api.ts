@@ -76,11 +76,8 @@ export async function suggestMappings(sourceData: DataFile, targetData: DataFile
   return out;
 }
 
-/**
- * Ask the mapping-service to transform sourceData using given mappings.
- * POST { source: DataFile, mappings: Mapping[] } -> DataFile
- */
-export async function transformData(sourceData: DataFile, mappings: Mapping[]): Promise<DataFile> {
+// POST sourceData + mappings to /mapping/transform; shared by transformData and transformAndValidate
+async function postTransform<T>(sourceData: DataFile, mappings: Mapping[], validate: boolean): Promise<T> {
   const url = `${MAPPING_SERVICE_URL}/mapping/transform`;
   let src: any = sourceData as any;
   try {
@@ -97,14 +94,40 @@ export async function transformData(sourceData: DataFile, mappings: Mapping[]):
     confidence: m.confidence ?? 0.5,
   }));
 
-  const resp = await fetchJson<{ transformedData: any }>(url, {
+  return fetchJson<T>(url, {
     method: 'POST',
     headers: { 'Content-Type': 'application/json' },
-    body: JSON.stringify({ sourceData: src, mappings: fm }),
+    body: JSON.stringify(validate ? { sourceData: src, mappings: fm, validate: true } : { sourceData: src, mappings: fm }),
   });
+}
+
+// wrap transformedData into DataFile for the frontend components
+function toDataFile(transformedData: any): DataFile {
+  return { name: 'transformed.json', content: JSON.stringify(transformedData ?? {}, null, 2) };
+}
 
-  // wrap transformedData into DataFile for the frontend components
-  return { name: 'transformed.json', content: JSON.stringify(resp?.transformedData ?? {}, null, 2) };
+/**
+ * Ask the mapping-service to transform sourceData using given mappings.
+ * POST { source: DataFile, mappings: Mapping[] } -> DataFile
+ */
+export async function transformData(sourceData: DataFile, mappings: Mapping[]): Promise<DataFile> {
+  const resp = await postTransform<{ transformedData: any }>(sourceData, mappings, false);
+  return toDataFile(resp?.transformedData);
+}
+
+/**
+ * Transform and validate in one call: mapping-service validates the transformed output in-process.
+ * POST { sourceData, mappings, validate: true } -> { transformedData, valid, validationResults }
+ */
+export async function transformAndValidate(
+  sourceData: DataFile,
+  mappings: Mapping[],
+): Promise<{ transformed: DataFile; results: ValidationResult[] }> {
+  const resp = await postTransform<{ transformedData: any; validationResults?: Array<any> }>(sourceData, mappings, true);
+  return {
+    transformed: toDataFile(resp?.transformedData),
+    results: (resp?.validationResults || []).map((e: any) => ({ passed: !!e.valid, message: e.error || '' })),
+  };
 }
 
 /**
@@ -0,0 +1,95 @@
+#!/usr/bin/env bash
+# Compares startup time and first-request latency of mapping-service builds:
+#   jvm       plain boot jar
+#   cds       extracted jar + AppCDS archive from a training run
+#   aot-cds   Spring AOT (-Paot) + AppCDS archive trained on the AOT build
+#   native    GraalVM native image (-Pnative), only when native-image is on the PATH
+#
+# Usage (from mapping-service/): scripts/startup-benchmark.sh [runs] [port]
+# Set GRADLE to use another gradle command (default ./gradlew).
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RUNS=${1:-5}
+PORT=${2:-18090}
+GRADLE=${GRADLE:-./gradlew}
+JAR_NAME=mapping-service-0.0.1-SNAPSHOT.jar
+
+TRANSFORM_BODY='{"sourceData":{"name":"Nagy János","birthDate":"1990-05-01","phone":"+36301234567","address":{"city":"Budapest"}},
+"mappings":[{"sourcePath":"name","targetPath":"person","transformationType":"split_name"},
+{"sourcePath":"birthDate","targetPath":"person.birthDate","transformationType":"date_format"},
+{"sourcePath":"phone","targetPath":"contact.phone","transformationType":"phone_format"},
+{"sourcePath":"address.city","targetPath":"contact.city","transformationType":"none"}]}'
+
+# Builds one variant and prints the directory to run it from. AppCDS archives pin the jar paths they were
+# trained with, so each variant is measured where it was built, before the next build replaces it.
+build() {
+    case "$1" in
+        jvm) $GRADLE -q bootJar && echo build/libs ;;
+        cds) $GRADLE -q bootJar cdsArchive && echo build/cds ;;
+        aot-cds) $GRADLE -q -Paot bootJar cdsArchive && echo build/cds ;;
+        native) $GRADLE -q -Pnative nativeCompile && echo build/native/nativeCompile ;;
+    esac
+}
+
+command_for() {
+    case "$1" in
+        jvm) echo "java -jar $JAR_NAME" ;;
+        cds) echo "java -XX:SharedArchiveFile=application.jsa -jar $JAR_NAME" ;;
+        aot-cds) echo "java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar $JAR_NAME" ;;
+        native) echo "./mapping-service" ;;
+    esac
+}
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# prints: ready_ms reported_s first_ms second_ms rss_mb
+run_once() {
+    local variant=$1 log pid start ready first second reported rss
+    log=$(mktemp)
+    start=$(now_ms)
+    (cd "$DIR" && exec $(command_for "$variant") --server.port="$PORT") >"$log" 2>&1 &
+    pid=$!
+    until curl -s -o /dev/null "http://localhost:$PORT/mapping/templates"; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "$variant failed to start, see $log" >&2
+            return 1
+        fi
+        sleep 0.02
+    done
+    ready=$(( $(now_ms) - start ))
+    first=$(curl -s -o /dev/null -w '%{time_total}' -H 'Content-Type: application/json' -d "$TRANSFORM_BODY" "http://localhost:$PORT/mapping/transform")
+    second=$(curl -s -o /dev/null -w '%{time_total}' -H 'Content-Type: application/json' -d "$TRANSFORM_BODY" "http://localhost:$PORT/mapping/transform")
+    reported=$(grep -o 'Started MappingServiceApplication in [0-9.]* seconds' "$log" | grep -o '[0-9.]*' | head -1)
+    rss=$(( $(ps -o rss= -p "$pid") / 1024 ))
+    kill "$pid" && wait "$pid" 2>/dev/null || true
+    rm -f "$log"
+    awk -v r="$ready" -v s="${reported:-0}" -v f="$first" -v n="$second" -v m="$rss" \
+        'BEGIN { printf "%d %.3f %.1f %.1f %d\n", r, s, f * 1000, n * 1000, m }'
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : (v[NR / 2] + v[NR / 2 + 1]) / 2 }'
+}
+
+VARIANTS="jvm cds aot-cds"
+if command -v native-image >/dev/null 2>&1; then
+    VARIANTS="$VARIANTS native"
+fi
+
+printf '%-8s %12s %14s %16s %17s %8s\n' variant ready_ms started_in_s first_req_ms second_req_ms rss_mb
+for variant in $VARIANTS; do
+    DIR=$(build "$variant" 2>/dev/null | tail -1)
+    results=$(for _ in $(seq "$RUNS"); do run_once "$variant"; done)
+    printf '%-8s %12s %14s %16s %17s %8s\n' "$variant" \
+        "$(echo "$results" | awk '{ print $1 }' | median)" \
+        "$(echo "$results" | awk '{ print $2 }' | median)" \
+        "$(echo "$results" | awk '{ print $3 }' | median)" \
+        "$(echo "$results" | awk '{ print $4 }' | median)" \
+        "$(echo "$results" | awk '{ print $5 }' | median)"
+done
+# leave build/ with the plain jar
+$GRADLE -q bootJar
+echo "medians of $RUNS runs; ready_ms is launch to first answered request, first/second_req_ms time POST /mapping/transform"
@@ -0,0 +1,189 @@
+package com.example.mapping_service.loadtest;
+
+import com.example.mapping_service.model.FieldMapping;
+import com.example.mapping_service.model.MappingRequest;
+import com.example.mapping_service.model.TransformRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Service-level load test: run with {@code ./gradlew loadTest [-PtransformRate=200] [-PsuggestRate=5] ...}
+ * (see build.gradle for all properties) or directly with {@code --key=value} arguments.
+ *
+ * Starts the boot jar as a child process wired to a {@link StubGeminiServer}, then drives /mapping/suggest and
+ * /mapping/transform at the same time, each at its own open-model arrival rate, with synthetic partner data
+ * from {@link SyntheticPartnerData}. Prints offered load, throughput, status codes and p50/p90/p99/p99.9/max
+ * latency per endpoint. Needs no network access; with the same seed and settings the requests are identical
+ * between runs, so results of two builds can be compared.
+ *
+ * Options (defaults in brackets):
+ * <pre>
+ *   --jar=PATH            boot jar to start (required unless --target is given)
+ *   --target=URL          test an already running service instead, e.g. http://localhost:8080; no AI stub
+ *   --transform-rate=N    transform arrivals per second, 0 = off [100]
+ *   --suggest-rate=N      suggest arrivals per second, 0 = off [5]
+ *   --warmup=S            seconds of load before measuring [10]
+ *   --duration=S          measured seconds [30]
+ *   --arrivals=poisson|uniform                          [poisson]
+ *   --fields=N            wide attribute fields per record, also scales schema width [50]
+ *   --accounts=N          maximum accounts array length per record [3]
+ *   --dirty=F             fraction of values that are missing, blank, mistyped or unparseable [0.1]
+ *   --records=N           distinct transform bodies, sent round robin [500]
+ *   --schemas=N           distinct suggest bodies, sent round robin [50]
+ *   --seed=N              data and arrival seed [42]
+ *   --ai-latency-ms=N     stub Gemini answer delay [300]
+ *   --ai-malformed=F      fraction of stub answers that are not JSON, i.e. heuristic fallback [0.1]
+ *   --timeout-s=N         per-request timeout [10]
+ *   --jvm-args="..."      JVM options for the service, space separated
+ *   --service-args="..."  service arguments, e.g. "--mapping.admission.enabled=false"
+ *   --out=DIR             service log directory [build/loadtest]
+ * </pre>
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        double transformRate = Double.parseDouble(options.getOrDefault("transform-rate", "100"));
+        double suggestRate = Double.parseDouble(options.getOrDefault("suggest-rate", "5"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30")));
+        boolean poisson = !"uniform".equals(options.getOrDefault("arrivals", "poisson"));
+        int fields = Integer.parseInt(options.getOrDefault("fields", "50"));
+        int accounts = Integer.parseInt(options.getOrDefault("accounts", "3"));
+        double dirty = Double.parseDouble(options.getOrDefault("dirty", "0.1"));
+        int records = Integer.parseInt(options.getOrDefault("records", "500"));
+        int schemas = Integer.parseInt(options.getOrDefault("schemas", "50"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        long aiLatency = Long.parseLong(options.getOrDefault("ai-latency-ms", "300"));
+        double aiMalformed = Double.parseDouble(options.getOrDefault("ai-malformed", "0.1"));
+        Duration timeout = Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout-s", "10")));
+        Path out = Path.of(options.getOrDefault("out", "build/loadtest"));
+        if (transformRate <= 0 && suggestRate <= 0) {
+            throw new IllegalArgumentException("both --transform-rate and --suggest-rate are 0");
+        }
+        if (!options.containsKey("target") && !options.containsKey("jar")) {
+            throw new IllegalArgumentException("--jar=PATH or --target=URL is required");
+        }
+
+        // all bodies are generated and serialized before the run, so data generation is not part of the load
+        ObjectMapper mapper = new ObjectMapper();
+        SyntheticPartnerData data = new SyntheticPartnerData(seed, fields, accounts, dirty);
+        List<FieldMapping> mappings = data.transformMappings();
+        List<byte[]> transformBodies = new ArrayList<>();
+        for (int i = 0; i < records; i++) {
+            transformBodies.add(mapper.writeValueAsBytes(new TransformRequest(data.record(), mappings)));
+        }
+        List<byte[]> suggestBodies = new ArrayList<>();
+        for (int i = 0; i < schemas; i++) {
+            suggestBodies.add(mapper.writeValueAsBytes(new MappingRequest(data.sourceSchema(), data.targetSchema())));
+        }
+
+        StubGeminiServer stub = null;
+        ServiceProcess service = null;
+        try {
+            String baseUrl = options.get("target");
+            if (baseUrl == null) {
+                Files.createDirectories(out);
+                Path log = out.resolve("service.log");
+                stub = new StubGeminiServer(mappings, aiLatency, aiMalformed);
+                System.out.printf("starting %s (AI stub at %s, log %s)%n", options.get("jar"), stub.endpoint(), log);
+                service = ServiceProcess.start(Path.of(options.get("jar")), split(options.get("jvm-args")),
+                        split(options.get("service-args")), stub.endpoint(), log, Duration.ofSeconds(120));
+                baseUrl = service.baseUrl();
+            }
+
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(2))
+                    .build();
+            List<OpenLoadDriver> drivers = new ArrayList<>();
+            if (transformRate > 0) {
+                drivers.add(new OpenLoadDriver(client, "/mapping/transform", URI.create(baseUrl + "/mapping/transform"),
+                        transformBodies, transformRate, poisson, timeout, seed));
+            }
+            if (suggestRate > 0) {
+                drivers.add(new OpenLoadDriver(client, "/mapping/suggest", URI.create(baseUrl + "/mapping/suggest"),
+                        suggestBodies, suggestRate, poisson, timeout, seed + 1));
+            }
+
+            System.out.printf("%s arrivals, %ds warm-up + %ds measured, %d wide fields, %.0f%% dirty values, seed %d%n",
+                    poisson ? "poisson" : "uniform", warmup.toSeconds(), duration.toSeconds(), fields, dirty * 100, seed);
+            System.out.printf("transform body %d bytes avg, suggest body %d bytes avg%n",
+                    averageSize(transformBodies), averageSize(suggestBodies));
+
+            ExecutorService pool = Executors.newFixedThreadPool(drivers.size());
+            List<Future<OpenLoadDriver.Result>> futures = new ArrayList<>();
+            for (OpenLoadDriver driver : drivers) {
+                futures.add(pool.submit(() -> driver.run(warmup, duration)));
+            }
+            List<OpenLoadDriver.Result> results = new ArrayList<>();
+            for (Future<OpenLoadDriver.Result> f : futures) results.add(f.get());
+            pool.shutdown();
+            report(results);
+        } finally {
+            if (service != null) service.close();
+            if (stub != null) stub.close();
+        }
+    }
+
+    private static void report(List<OpenLoadDriver.Result> results) {
+        System.out.printf("%n%-19s %9s %7s %7s %9s %8s %8s %8s %8s %8s  %s%n", "endpoint", "offered/s", "sent",
+                "ok", "ok/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "status codes");
+        for (OpenLoadDriver.Result r : results) {
+            System.out.printf("%-19s %9.1f %7d %7d %9.1f %8.1f %8.1f %8.1f %8.1f %8.1f  %s%n", r.name(), r.offeredRate(),
+                    r.sent(), r.ok(), r.throughput(), millis(r.percentile(0.5)), millis(r.percentile(0.9)),
+                    millis(r.percentile(0.99)), millis(r.percentile(0.999)), millis(r.percentile(1.0)), statusCodes(r));
+        }
+        System.out.println("latency of 2xx responses, measured from the scheduled arrival; -1 = timeout or connection error");
+        for (OpenLoadDriver.Result r : results) {
+            if (r.maxSendLagNanos() > 10_000_000) {
+                System.out.printf("warning: %s requests were sent up to %.1f ms late, the load generator is saturated%n",
+                        r.name(), millis(r.maxSendLagNanos()));
+            }
+        }
+    }
+
+    private static String statusCodes(OpenLoadDriver.Result r) {
+        StringBuilder sb = new StringBuilder();
+        r.statuses().forEach((status, n) -> sb.append(sb.length() == 0 ? "" : " ").append(status).append('=').append(n));
+        return sb.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static long averageSize(List<byte[]> bodies) {
+        return bodies.isEmpty() ? 0 : bodies.stream().mapToLong(b -> b.length).sum() / bodies.size();
+    }
+
+    private static List<String> split(String value) {
+        if (value == null || value.isBlank()) return List.of();
+        return Arrays.asList(value.trim().split("\\s+"));
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("expected --key=value, got " + arg);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.mapping_service.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load for one endpoint: requests are sent at arrival times drawn up front (Poisson or evenly
+ * spaced at {@code rate} per second), whether or not earlier requests have been answered. Latency is measured
+ * from the scheduled arrival, not from the actual send, so a stalled service or a late generator shows up in
+ * the percentiles instead of silently lowering the offered load (coordinated omission).
+ *
+ * Requests arriving during the warm-up are sent but not recorded.
+ */
+class OpenLoadDriver {
+
+    private final HttpClient client;
+    private final String name;
+    private final URI uri;
+    private final List<byte[]> bodies;
+    private final double rate;
+    private final boolean poisson;
+    private final Duration timeout;
+    private final long seed;
+
+    OpenLoadDriver(HttpClient client, String name, URI uri, List<byte[]> bodies, double rate, boolean poisson,
+                   Duration timeout, long seed) {
+        this.client = client;
+        this.name = name;
+        this.uri = uri;
+        this.bodies = bodies;
+        this.rate = rate;
+        this.poisson = poisson;
+        this.timeout = timeout;
+        this.seed = seed;
+    }
+
+    /** Runs warm-up plus measurement and waits for outstanding requests (up to the request timeout). */
+    Result run(Duration warmup, Duration duration) throws InterruptedException {
+        Result result = new Result(name, rate, duration);
+        AtomicInteger inFlight = new AtomicInteger();
+        Random random = new Random(seed);
+        double meanGap = TimeUnit.SECONDS.toNanos(1) / rate;
+
+        long begin = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureFrom = begin + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        double next = begin;
+        int index = 0;
+        while (next < end) {
+            long intended = (long) next;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+            boolean measured = intended >= measureFrom;
+            if (measured) result.sendLag(System.nanoTime() - intended);
+
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(bodies.get(index++ % bodies.size())))
+                    .build();
+            inFlight.incrementAndGet();
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).whenComplete((response, error) -> {
+                long latency = System.nanoTime() - intended;
+                if (measured) result.record(error != null ? -1 : response.statusCode(), latency);
+                inFlight.decrementAndGet();
+            });
+            next += poisson ? -Math.log(1 - random.nextDouble()) * meanGap : meanGap;
+        }
+
+        long drainDeadline = System.nanoTime() + timeout.toNanos() + TimeUnit.SECONDS.toNanos(1);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        return result;
+    }
+
+    /** Latencies and status codes of the measured requests; -1 stands for timeouts and connection errors. */
+    static class Result {
+
+        private final String name;
+        private final double offeredRate;
+        private final Duration duration;
+        private final Map<Integer, Integer> statuses = new TreeMap<>();
+        private long[] latencies = new long[1024];
+        private int count;
+        private long maxSendLag;
+
+        Result(String name, double offeredRate, Duration duration) {
+            this.name = name;
+            this.offeredRate = offeredRate;
+            this.duration = duration;
+        }
+
+        synchronized void record(int status, long latencyNanos) {
+            statuses.merge(status, 1, Integer::sum);
+            if (status < 200 || status >= 300) return;
+            if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = latencyNanos;
+        }
+
+        // only written by the scheduling thread
+        void sendLag(long lagNanos) {
+            if (lagNanos > maxSendLag) maxSendLag = lagNanos;
+        }
+
+        String name() {
+            return name;
+        }
+
+        double offeredRate() {
+            return offeredRate;
+        }
+
+        synchronized int sent() {
+            return statuses.values().stream().mapToInt(Integer::intValue).sum();
+        }
+
+        synchronized int ok() {
+            return count;
+        }
+
+        /** Successful responses per second of the measured window. */
+        synchronized double throughput() {
+            return count / (duration.toNanos() / 1e9);
+        }
+
+        synchronized Map<Integer, Integer> statuses() {
+            return new TreeMap<>(statuses);
+        }
+
+        long maxSendLagNanos() {
+            return maxSendLag;
+        }
+
+        /** Latency of successful responses at quantile q (0..1) in nanoseconds, 0 if there were none. */
+        synchronized long percentile(double q) {
+            if (count == 0) return 0;
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(q * count);
+            return sorted[Math.max(0, Math.min(count, rank) - 1)];
+        }
+    }
+}
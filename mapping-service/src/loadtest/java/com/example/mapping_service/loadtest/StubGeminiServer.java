@@ -0,0 +1,85 @@
+package com.example.mapping_service.loadtest;
+
+import com.example.mapping_service.model.FieldMapping;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for the Gemini generateContent endpoint, so /mapping/suggest can be load tested offline.
+ *
+ * Answers every POST after a fixed delay (the model latency) with the {@code candidates[0].content} shape
+ * GeminiAIService reads, holding a JSON array of mappings. A {@code malformedRatio} of the answers is not
+ * valid JSON, which sends the service down its heuristic fallback like a real unusable model answer would.
+ */
+class StubGeminiServer implements AutoCloseable {
+
+    static final String PATH = "/v1beta/models/stub:generateContent";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final byte[] answer;
+    private final byte[] malformed;
+    private final long latencyMillis;
+    private final double malformedRatio;
+
+    StubGeminiServer(List<FieldMapping> mappings, long latencyMillis, double malformedRatio) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        this.answer = mapper.writeValueAsBytes(Map.of("candidates",
+                List.of(Map.of("content", mapper.writeValueAsString(mappings)))));
+        this.malformed = mapper.writeValueAsBytes(Map.of("candidates",
+                List.of(Map.of("content", "Here are the mappings you asked for: sourcePath -> targetPath ..."))));
+        this.latencyMillis = latencyMillis;
+        this.malformedRatio = malformedRatio;
+        // one thread per in-flight call: the delay must not queue calls behind each other
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "stub-gemini");
+            t.setDaemon(true);
+            return t;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 256);
+        server.createContext(PATH, this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + PATH;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            in.readAllBytes();
+        }
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        byte[] body = ThreadLocalRandom.current().nextDouble() < malformedRatio ? malformed : answer;
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.mapping_service.loadtest;
+
+import com.example.mapping_service.model.FieldMapping;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Seeded generator of partner data shaped like the example_data formats: BankCorp-style customer records
+ * (nested, with an accounts array and a wide block of extra attributes) for /mapping/transform, and pairs of
+ * partner schemas with varying naming styles, nesting and width for /mapping/suggest.
+ *
+ * Values mix the formats partners actually send (yyyy-MM-dd, dd/MM/yyyy, yyyy.MM.dd.; +36..., 06..., spaced
+ * and dashed phone numbers) and a {@code dirty} fraction is broken on purpose: missing, null, blank, wrong type
+ * or unparseable. The same seed always yields the same data.
+ */
+class SyntheticPartnerData {
+
+    private static final String[] FAMILY_NAMES = {"Nagy", "Kovács", "Tóth", "Szabó", "Horváth", "Varga", "Kiss",
+            "Molnár", "Németh", "Farkas", "Balogh", "Papp", "Takács", "Juhász", "Lakatos", "Mészáros", "Oláh",
+            "Simon", "Rácz", "Fekete", "Szűcs", "Török", "Fehér", "Győri"};
+    private static final String[] GIVEN_NAMES = {"János", "István", "László", "József", "Zoltán", "Sándor", "Gábor",
+            "Ferenc", "Attila", "Péter", "Tamás", "Mária", "Erzsébet", "Katalin", "Éva", "Ilona", "Anna",
+            "Zsuzsanna", "Margit", "Judit", "Ágnes", "Réka", "Dóra", "Bernadett", "Örs", "Ödön"};
+    private static final String[] CITIES = {"Budapest", "Debrecen", "Szeged", "Miskolc", "Pécs", "Győr",
+            "Nyíregyháza", "Kecskemét", "Székesfehérvár", "Szombathely", "Érd", "Hódmezővásárhely"};
+    private static final String[] STREETS = {"Fő utca", "Petőfi Sándor utca", "Kossuth Lajos utca", "Rákóczi út",
+            "Széchenyi tér", "Dózsa György út", "Ady Endre utca", "Bajcsy-Zsilinszky út", "Árpád fejedelem útja"};
+    private static final String[] MOBILE_PREFIXES = {"20", "30", "31", "50", "70"};
+
+    // concept -> spellings partners use for it; the first one is the BankCorp name
+    private static final String[][] CONCEPTS = {
+            {"FullName", "customerName", "full_name", "name", "nev"},
+            {"BirthDate", "dateOfBirth", "birth_date", "dob", "szuletesi_datum"},
+            {"TaxID", "taxId", "tax_number", "adoazonosito", "nationalId"},
+            {"PrimaryPhone", "mobile", "phone_number", "telefon", "msisdn"},
+            {"EmailAddr", "email", "e_mail", "emailAddress", "mail"},
+            {"PostalCode", "zip", "postal_code", "iranyitoszam", "postcode"},
+            {"City", "city", "town", "varos", "settlement"},
+            {"StreetAddress", "street", "address_line", "utca", "addressLine1"},
+    };
+    private static final String[][] GROUPS = {
+            {"PersonalData", "personal", "person", "szemelyes_adatok", "identity"},
+            {"ContactInfo", "contact", "contacts", "elerhetoseg", "reach"},
+            {"Address", "address", "location", "lakcim", "residence"},
+    };
+    private static final String[] TARGET_NAME_PARTS = {"firstName", "lastName", "givenName", "surname"};
+
+    private final Random random;
+    private final int wideFields;
+    private final int maxAccounts;
+    private final double dirty;
+
+    SyntheticPartnerData(long seed, int wideFields, int maxAccounts, double dirty) {
+        this.random = new Random(seed);
+        this.wideFields = wideFields;
+        this.maxAccounts = maxAccounts;
+        this.dirty = dirty;
+    }
+
+    /**
+     * Mappings from the generated BankCorp-style records to an InsureTech-style target, the same for every
+     * transform request like a stored template would be.
+     */
+    List<FieldMapping> transformMappings() {
+        List<FieldMapping> mappings = new ArrayList<>();
+        mappings.add(new FieldMapping("Customer.CIF", "client.id", "none", 1.0));
+        mappings.add(new FieldMapping("Customer.PersonalData.FullName", "client.personal", "split_name", 0.9));
+        mappings.add(new FieldMapping("Customer.PersonalData.BirthDate", "client.personal.dateOfBirth", "date_format", 0.9));
+        mappings.add(new FieldMapping("Customer.PersonalData.TaxID", "client.personal.nationalId", "none", 0.8));
+        mappings.add(new FieldMapping("Customer.ContactInfo.PrimaryPhone", "client.contact.mobile", "phone_format", 0.9));
+        mappings.add(new FieldMapping("Customer.ContactInfo.EmailAddr", "client.contact.email", "none", 0.9));
+        mappings.add(new FieldMapping("Customer.Address.PostalCode", "client.location.zip", "none", 0.9));
+        mappings.add(new FieldMapping("Customer.Address.City", "client.location.city", "none", 0.9));
+        mappings.add(new FieldMapping("Customer.Address.StreetAddress", "client.location.street", "none", 0.9));
+        mappings.add(new FieldMapping("Customer.Accounts[*].IBAN", "client.accounts[*].iban", "none", 0.9));
+        mappings.add(new FieldMapping("Customer.Accounts[*].OpenedOn", "client.accounts[*].opened", "date_format", 0.8));
+        mappings.add(new FieldMapping("Customer.Accounts[*].Balance", "client.accounts[*].balance", "none", 0.8));
+        for (int i = 0; i < wideFields; i++) {
+            mappings.add(new FieldMapping(String.format("Customer.Attributes.attr%03d", i),
+                    String.format("client.extra.field%03d", i), "none", 0.6));
+        }
+        return mappings;
+    }
+
+    /** One customer record for the {@link #transformMappings()} source side. */
+    Map<String, Object> record() {
+        String given = pick(GIVEN_NAMES);
+        String family = pick(FAMILY_NAMES);
+
+        Map<String, Object> personal = new LinkedHashMap<>();
+        put(personal, "FullName", fullName(given, family));
+        put(personal, "BirthDate", date(1940, 2006));
+        put(personal, "TaxID", digits(10));
+
+        Map<String, Object> contact = new LinkedHashMap<>();
+        put(contact, "PrimaryPhone", phone());
+        put(contact, "EmailAddr", email(given, family));
+
+        Map<String, Object> address = new LinkedHashMap<>();
+        put(address, "PostalCode", String.valueOf(1000 + random.nextInt(9000)));
+        put(address, "City", pick(CITIES));
+        put(address, "StreetAddress", pick(STREETS) + " " + (1 + random.nextInt(120)) + ".");
+
+        List<Object> accounts = new ArrayList<>();
+        int accountCount = maxAccounts == 0 ? 0 : random.nextInt(maxAccounts + 1);
+        for (int i = 0; i < accountCount; i++) {
+            Map<String, Object> account = new LinkedHashMap<>();
+            put(account, "IBAN", "HU" + digits(2) + " " + digits(4) + " " + digits(4) + " " + digits(4) + " " + digits(4)
+                    + " " + digits(4) + " " + digits(4) + " " + digits(4));
+            put(account, "Balance", Math.round(random.nextGaussian() * 500_000 + 250_000) / 100.0);
+            put(account, "OpenedOn", date(1995, 2025));
+            accounts.add(account);
+        }
+
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        for (int i = 0; i < wideFields; i++) {
+            put(attributes, String.format("attr%03d", i), attribute(i));
+        }
+
+        Map<String, Object> customer = new LinkedHashMap<>();
+        put(customer, "CIF", String.valueOf(100_000 + random.nextInt(900_000)));
+        customer.put("PersonalData", personal);
+        customer.put("ContactInfo", contact);
+        customer.put("Address", address);
+        customer.put("Accounts", accounts);
+        customer.put("Attributes", attributes);
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("Customer", customer);
+        return record;
+    }
+
+    /** A random source schema: the known concepts under partner-specific names and groups, plus filler fields. */
+    Map<String, Object> sourceSchema() {
+        Map<String, Object> root = new LinkedHashMap<>();
+        Map<String, Object> body = random.nextBoolean() ? root : child(root, style(pick(new String[]{"Customer", "client", "ugyfel", "party"})));
+        int spelling = random.nextInt(CONCEPTS[0].length);
+        boolean grouped = random.nextInt(3) > 0;
+        for (int c = 0; c < CONCEPTS.length; c++) {
+            Map<String, Object> parent = grouped ? child(body, style(GROUPS[groupOf(c)][spelling])) : body;
+            // partners are not consistent either: a few fields use another spelling
+            String name = CONCEPTS[c][random.nextInt(4) == 0 ? random.nextInt(CONCEPTS[c].length) : spelling];
+            parent.put(style(name), sample(c));
+        }
+        if (random.nextBoolean()) {
+            Map<String, Object> account = new LinkedHashMap<>();
+            account.put(style("iban"), "HU42 1177 3016 1111 1018 0000 0000");
+            account.put(style("balance"), 1234.5);
+            account.put(style("opened_on"), "2015-06-01");
+            body.put(style("accounts"), List.of(account));
+        }
+        addFiller(body, 3 + wideFields / 4);
+        return root;
+    }
+
+    /** A random InsureTech-like target schema: split names, its own grouping and naming style. */
+    Map<String, Object> targetSchema() {
+        Map<String, Object> root = new LinkedHashMap<>();
+        Map<String, Object> client = child(root, pick(new String[]{"client", "policyHolder", "insured", "ugyfel"}));
+        Map<String, Object> personal = child(client, pick(new String[]{"personal", "person", "identity"}));
+        int names = random.nextBoolean() ? 0 : 2;
+        personal.put(TARGET_NAME_PARTS[names], "János");
+        personal.put(TARGET_NAME_PARTS[names + 1], "Nagy");
+        personal.put(pick(new String[]{"dateOfBirth", "birthDate", "dob"}), "15/03/1985");
+        personal.put(pick(new String[]{"nationalId", "taxNumber"}), "8123456789");
+        Map<String, Object> contact = child(client, pick(new String[]{"contact", "reach"}));
+        contact.put(pick(new String[]{"mobile", "phone", "telephone"}), "06301234567");
+        contact.put(pick(new String[]{"email", "emailAddress"}), "janos.nagy@example.hu");
+        Map<String, Object> location = child(client, pick(new String[]{"location", "address", "residence"}));
+        location.put(pick(new String[]{"zip", "postalCode"}), "1051");
+        location.put("city", "Budapest");
+        location.put(pick(new String[]{"street", "line1"}), "Fő utca 1.");
+        addFiller(client, 2 + wideFields / 4);
+        return root;
+    }
+
+    // --- values ---
+
+    private String fullName(String given, String family) {
+        switch (random.nextInt(10)) {
+            case 0: return "Dr. " + family + " " + given;
+            case 1: return family + " " + given + " " + pick(GIVEN_NAMES);
+            case 2: return family + "-" + pick(FAMILY_NAMES) + " " + given;
+            case 3: return (family + " " + given).toUpperCase(Locale.ROOT);
+            default: return family + " " + given;
+        }
+    }
+
+    private String date(int fromYear, int toYear) {
+        int year = fromYear + random.nextInt(toYear - fromYear + 1);
+        int month = 1 + random.nextInt(12);
+        int day = 1 + random.nextInt(28);
+        switch (random.nextInt(5)) {
+            case 0: return String.format("%02d/%02d/%d", day, month, year);
+            case 1: return String.format("%d.%02d.%02d.", year, month, day);
+            case 2: return String.format("%d-%02d-%02dT00:00:00Z", year, month, day);
+            default: return String.format("%d-%02d-%02d", year, month, day);
+        }
+    }
+
+    private String phone() {
+        String prefix = pick(MOBILE_PREFIXES);
+        String a = digits(3);
+        String b = digits(4);
+        switch (random.nextInt(6)) {
+            case 0: return "06" + prefix + a + b;
+            case 1: return "+36 " + prefix + " " + a + " " + b;
+            case 2: return "06-" + prefix + "/" + a + "-" + b;
+            case 3: return "0036" + prefix + a + b;
+            case 4: return "+36 (" + prefix + ") " + a + "-" + b.substring(0, 2) + "-" + b.substring(2);
+            default: return "+36" + prefix + a + b;
+        }
+    }
+
+    private String email(String given, String family) {
+        return ascii(given) + "." + ascii(family) + random.nextInt(100) + pick(new String[]{"@gmail.com", "@freemail.hu", "@citromail.hu", "@example.hu"});
+    }
+
+    private Object attribute(int i) {
+        switch (i % 5) {
+            case 0: return "value-" + digits(6);
+            case 1: return random.nextInt(100_000);
+            case 2: return random.nextBoolean();
+            case 3: return date(2000, 2025);
+            default: return pick(CITIES) + " " + pick(STREETS);
+        }
+    }
+
+    private Object sample(int concept) {
+        switch (concept) {
+            case 0: return pick(FAMILY_NAMES) + " " + pick(GIVEN_NAMES);
+            case 1: return date(1940, 2006);
+            case 2: return digits(10);
+            case 3: return phone();
+            case 4: return email(pick(GIVEN_NAMES), pick(FAMILY_NAMES));
+            case 5: return String.valueOf(1000 + random.nextInt(9000));
+            case 6: return pick(CITIES);
+            default: return pick(STREETS) + " 1.";
+        }
+    }
+
+    // puts the value, or with probability dirty one of the ways partners break it
+    private void put(Map<String, Object> map, String key, Object value) {
+        if (random.nextDouble() >= dirty) {
+            map.put(key, value);
+            return;
+        }
+        switch (random.nextInt(7)) {
+            case 0: return; // missing
+            case 1: map.put(key, null); break;
+            case 2: map.put(key, random.nextBoolean() ? "" : "   "); break;
+            case 3: map.put(key, value instanceof String ? (Object) random.nextInt(1_000_000) : String.valueOf(value)); break;
+            case 4: map.put(key, pick(new String[]{"N/A", "-", "ismeretlen", "null", "#HIBA!"})); break;
+            case 5: map.put(key, pick(new String[]{"1990-02-30", "31.02.1990", "15/13/1985", "tegnap", "19850315"})); break;
+            default: map.put(key, "  " + value + " "); break;
+        }
+    }
+
+    private static int groupOf(int concept) {
+        return concept < 3 ? 0 : concept < 5 ? 1 : 2;
+    }
+
+    private void addFiller(Map<String, Object> map, int count) {
+        for (int i = 0; i < count; i++) {
+            map.put(style(pick(new String[]{"custom_field_", "ext_", "legacy_code_", "segment_", "flag_"}) + i), digits(4));
+        }
+    }
+
+    private Map<String, Object> child(Map<String, Object> parent, String key) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> existing = (Map<String, Object>) parent.get(key);
+        if (existing != null) return existing;
+        Map<String, Object> child = new LinkedHashMap<>();
+        parent.put(key, child);
+        return child;
+    }
+
+    // camelCase / PascalCase / snake_case of a name in any of the three
+    private String style(String name) {
+        String[] words = name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase(Locale.ROOT).split("_+");
+        int style = random.nextInt(3);
+        if (style == 2) return String.join("_", words);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words.length; i++) {
+            if (words[i].isEmpty()) continue;
+            boolean upper = i > 0 || style == 1;
+            sb.append(upper ? Character.toUpperCase(words[i].charAt(0)) + words[i].substring(1) : words[i]);
+        }
+        return sb.toString();
+    }
+
+    private String digits(int n) {
+        char[] chars = new char[n];
+        for (int i = 0; i < n; i++) chars[i] = (char) ('0' + random.nextInt(10));
+        return new String(chars);
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String ascii(String s) {
+        return java.text.Normalizer.normalize(s, java.text.Normalizer.Form.NFD).replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT);
+    }
+}
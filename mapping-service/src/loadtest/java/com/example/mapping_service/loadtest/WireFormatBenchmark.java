@@ -0,0 +1,180 @@
+package com.example.mapping_service.loadtest;
+
+import com.example.mapping_service.MappingServiceApplication;
+import com.example.mapping_service.compression.ContentEncoding;
+import com.example.mapping_service.model.FieldMapping;
+import com.example.mapping_service.model.TransformRequest;
+import com.example.mapping_service.model.TransformResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wire format benchmark: run with {@code ./gradlew wireFormatBenchmark [-Pfields=200] [-Prequests=2000]}.
+ *
+ * Starts the service on a random port and posts the same TransformRequest as JSON, Smile and CBOR, each
+ * uncompressed, gzip and zstd. Prints request/response payload sizes, client-side codec cost per round trip
+ * and end-to-end throughput relative to plain JSON.
+ */
+public class WireFormatBenchmark {
+
+    private static final int CONCURRENCY = 4;
+
+    public static void main(String[] args) throws Exception {
+        int fields = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        ConfigurableApplicationContext ctx = SpringApplication.run(MappingServiceApplication.class,
+                "--server.port=0", "--mapping.admission.enabled=false", "--logging.level.root=WARN");
+        try {
+            int port = ((WebServerApplicationContext) ctx).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/mapping/transform");
+            HttpClient client = HttpClient.newHttpClient();
+            TransformRequest request = buildRequest(fields);
+
+            Object[][] formats = {
+                    {"json", "application/json", new ObjectMapper()},
+                    {"smile", "application/x-jackson-smile", new SmileMapper()},
+                    {"cbor", "application/cbor", new CBORMapper()},
+            };
+            ContentEncoding[] encodings = {null, ContentEncoding.GZIP, ContentEncoding.ZSTD};
+
+            System.out.printf("%n%d source fields, %d requests per variant, concurrency %d%n%n", fields, requests, CONCURRENCY);
+            System.out.printf("%-6s %-9s %10s %10s %12s %10s %9s%n",
+                    "format", "encoding", "req bytes", "resp bytes", "codec us/op", "req/s", "vs json");
+            double jsonThroughput = 0;
+            for (Object[] f : formats) {
+                String name = (String) f[0];
+                String mediaType = (String) f[1];
+                ObjectMapper mapper = (ObjectMapper) f[2];
+                for (ContentEncoding enc : encodings) {
+                    byte[] body = encode(mapper.writeValueAsBytes(request), enc);
+                    HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                            .header("Content-Type", mediaType)
+                            .header("Accept", mediaType)
+                            .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+                    if (enc != null) {
+                        builder.header("Content-Encoding", enc.token()).header("Accept-Encoding", enc.token());
+                    }
+                    HttpRequest httpRequest = builder.build();
+
+                    // warm-up, also captures the response size
+                    long responseBytes = 0;
+                    for (int i = 0; i < Math.max(50, requests / 10); i++) {
+                        responseBytes = roundTrip(client, httpRequest, mapper, enc);
+                    }
+                    double codecMicros = codecCost(mapper, request, enc);
+                    double throughput = run(client, httpRequest, mapper, enc, requests);
+                    if (jsonThroughput == 0) jsonThroughput = throughput;
+                    System.out.printf("%-6s %-9s %10d %10d %12.1f %10.0f %8.2fx%n", name, enc == null ? "identity" : enc.token(),
+                            body.length, responseBytes, codecMicros, throughput, throughput / jsonThroughput);
+                }
+            }
+        } finally {
+            ctx.close();
+        }
+    }
+
+    private static double run(HttpClient client, HttpRequest request, ObjectMapper mapper, ContentEncoding enc, int requests) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(CONCURRENCY);
+        AtomicLong remaining = new AtomicLong(requests);
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < CONCURRENCY; t++) {
+            futures.add(pool.submit(() -> {
+                while (remaining.getAndDecrement() > 0) roundTrip(client, request, mapper, enc);
+                return null;
+            }));
+        }
+        for (Future<?> f : futures) f.get();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+        return requests / seconds;
+    }
+
+    private static long roundTrip(HttpClient client, HttpRequest request, ObjectMapper mapper, ContentEncoding enc) throws Exception {
+        HttpResponse<byte[]> resp = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (resp.statusCode() != 200) throw new IllegalStateException("HTTP " + resp.statusCode());
+        byte[] body = resp.body();
+        ContentEncoding respEnc = resp.headers().firstValue("Content-Encoding").map(ContentEncoding::fromToken).orElse(null);
+        mapper.readValue(decode(body, respEnc), TransformResponse.class);
+        return body.length;
+    }
+
+    // serialize + compress + decompress + deserialize the request in-process, microseconds per op
+    private static double codecCost(ObjectMapper mapper, TransformRequest request, ContentEncoding enc) throws Exception {
+        int iterations = 2000;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            byte[] bytes = encode(mapper.writeValueAsBytes(request), enc);
+            mapper.readValue(decode(bytes, enc), TransformRequest.class);
+        }
+        return (System.nanoTime() - start) / 1e3 / iterations;
+    }
+
+    private static byte[] encode(byte[] raw, ContentEncoding enc) throws Exception {
+        if (enc == null) return raw;
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (OutputStream os = enc.encode(bos)) {
+            os.write(raw);
+        }
+        return bos.toByteArray();
+    }
+
+    private static byte[] decode(byte[] body, ContentEncoding enc) throws Exception {
+        if (enc == null) return body;
+        try (InputStream in = enc.decode(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        }
+    }
+
+    // wide partner record: strings, numbers, dates and phone numbers under a couple of nested objects
+    private static TransformRequest buildRequest(int fields) {
+        Map<String, Object> customer = new LinkedHashMap<>();
+        Map<String, Object> contact = new LinkedHashMap<>();
+        List<FieldMapping> mappings = new ArrayList<>();
+        for (int i = 0; i < fields; i++) {
+            switch (i % 4) {
+                case 0:
+                    customer.put("name" + i, "Nagy János " + i);
+                    mappings.add(new FieldMapping("customer.name" + i, "client.person" + i, "split_name", 0.9));
+                    break;
+                case 1:
+                    customer.put("birthDate" + i, "1985-0" + (1 + i % 9) + "-1" + (i % 10));
+                    mappings.add(new FieldMapping("customer.birthDate" + i, "client.dob" + i, "date_format", 0.9));
+                    break;
+                case 2:
+                    contact.put("phone" + i, "+3630" + (1000000 + i));
+                    mappings.add(new FieldMapping("customer.contact.phone" + i, "client.contact.phone" + i, "phone_format", 0.9));
+                    break;
+                default:
+                    customer.put("balance" + i, 1000.5 * i);
+                    mappings.add(new FieldMapping("customer.balance" + i, "client.account.balance" + i, "copy", 0.9));
+            }
+        }
+        customer.put("contact", contact);
+        Map<String, Object> source = new LinkedHashMap<>();
+        source.put("customer", customer);
+        return new TransformRequest(source, mappings);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.mapping_service.admission;
+
+import com.example.mapping_service.timing.PhaseTimer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-endpoint admission control in front of the controllers.
+ *
+ * Requests over a client's rate limit get 429, requests that cannot get a concurrency slot within the bounded
+ * wait queue get 503; both carry Retry-After so well-behaved clients back off.
+ *
+ * Clients are identified by remote address. The client header is only believed on requests coming from a
+ * configured trusted proxy, otherwise a client could dodge its limit by sending a new id every time.
+ */
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    static final int MAX_TRACKED_CLIENTS = 10_000;
+
+    private final String clientHeader;
+    private final Set<String> trustedProxies;
+    private final Guard suggest;
+    private final Guard transform;
+
+    public AdmissionFilter(AdmissionProperties properties) {
+        this.clientHeader = properties.getClientHeader();
+        this.trustedProxies = Set.copyOf(properties.getTrustedProxies());
+        this.suggest = new Guard(properties.getSuggest());
+        this.transform = new Guard(properties.getTransform());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || guardFor(request.getServletPath()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Guard guard = guardFor(request.getServletPath());
+
+        if (guard.rateLimited()) {
+            long waitNanos = guard.bucketFor(clientOf(request)).tryConsume();
+            if (waitNanos > 0) {
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, (int) Math.max(1, Math.ceil(waitNanos / 1e9)));
+                return;
+            }
+        }
+
+        boolean admitted;
+        try (PhaseTimer.Phase wait = PhaseTimer.start("admission")) {
+            admitted = guard.limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, guard.config.getRetryAfterSeconds());
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            guard.limiter.release(System.nanoTime() - start);
+        }
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String remote = request.getRemoteAddr();
+        if (clientHeader != null && !clientHeader.isEmpty() && trustedProxies.contains(remote)) {
+            String client = request.getHeader(clientHeader);
+            if (client != null && !client.isEmpty()) return client;
+        }
+        return remote;
+    }
+
+    private Guard guardFor(String path) {
+        if ("/mapping/suggest".equals(path)) return suggest;
+        if ("/mapping/transform".equals(path) || path.startsWith("/mapping/transform/")) return transform;
+        return null;
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, int retryAfterSeconds) {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Integer.toString(retryAfterSeconds));
+    }
+
+    private static final class Guard {
+        final AdmissionProperties.Endpoint config;
+        final ConcurrencyLimiter limiter;
+        // least recently seen clients are dropped first; an evicted client just starts over with a full bucket
+        final Map<String, TokenBucket> buckets = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+                return size() > MAX_TRACKED_CLIENTS;
+            }
+        };
+
+        Guard(AdmissionProperties.Endpoint config) {
+            this.config = config;
+            this.limiter = new ConcurrencyLimiter(config.getMaxConcurrent(), config.getMaxQueue(), config.getMaxWaitMs(),
+                    config.isAdaptive(), config.getMinConcurrent(), config.getLatencyTolerance());
+        }
+
+        boolean rateLimited() {
+            return config.getRatePerSecond() > 0;
+        }
+
+        TokenBucket bucketFor(String client) {
+            synchronized (buckets) {
+                return buckets.computeIfAbsent(client, c -> new TokenBucket(config.getRatePerSecond(), config.getBurst()));
+            }
+        }
+    }
+}
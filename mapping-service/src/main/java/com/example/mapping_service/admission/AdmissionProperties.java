@@ -0,0 +1,155 @@
+package com.example.mapping_service.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * Admission control settings (mapping.admission.*). Each endpoint gets its own concurrency limit, wait queue
+ * and optional per-client rate limit so expensive /suggest traffic cannot starve cheap /transform calls.
+ */
+@ConfigurationProperties(prefix = "mapping.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+    // header identifying the client for rate limiting, set by a proxy or gateway in front of the service. Only
+    // honoured on requests from trustedProxies; everything else is keyed on the remote address.
+    private String clientHeader = "X-Client-Id";
+    private List<String> trustedProxies = List.of();
+    private Endpoint suggest = new Endpoint(4, 16, 2000);
+    private Endpoint transform = new Endpoint(32, 100, 500);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getClientHeader() {
+        return clientHeader;
+    }
+
+    public void setClientHeader(String clientHeader) {
+        this.clientHeader = clientHeader;
+    }
+
+    public List<String> getTrustedProxies() {
+        return trustedProxies;
+    }
+
+    public void setTrustedProxies(List<String> trustedProxies) {
+        this.trustedProxies = trustedProxies;
+    }
+
+    public Endpoint getSuggest() {
+        return suggest;
+    }
+
+    public void setSuggest(Endpoint suggest) {
+        this.suggest = suggest;
+    }
+
+    public Endpoint getTransform() {
+        return transform;
+    }
+
+    public void setTransform(Endpoint transform) {
+        this.transform = transform;
+    }
+
+    public static class Endpoint {
+        private int maxConcurrent;
+        private int maxQueue;
+        private long maxWaitMs;
+        // adaptive limit between minConcurrent and maxConcurrent driven by observed latency
+        private boolean adaptive;
+        private int minConcurrent = 1;
+        private double latencyTolerance = 1.5;
+        // per-client token bucket; 0 disables rate limiting
+        private double ratePerSecond;
+        private int burst = 10;
+        private int retryAfterSeconds = 1;
+
+        public Endpoint() {}
+
+        public Endpoint(int maxConcurrent, int maxQueue, long maxWaitMs) {
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueue = maxQueue;
+            this.maxWaitMs = maxWaitMs;
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public int getMaxQueue() {
+            return maxQueue;
+        }
+
+        public void setMaxQueue(int maxQueue) {
+            this.maxQueue = maxQueue;
+        }
+
+        public long getMaxWaitMs() {
+            return maxWaitMs;
+        }
+
+        public void setMaxWaitMs(long maxWaitMs) {
+            this.maxWaitMs = maxWaitMs;
+        }
+
+        public boolean isAdaptive() {
+            return adaptive;
+        }
+
+        public void setAdaptive(boolean adaptive) {
+            this.adaptive = adaptive;
+        }
+
+        public int getMinConcurrent() {
+            return minConcurrent;
+        }
+
+        public void setMinConcurrent(int minConcurrent) {
+            this.minConcurrent = minConcurrent;
+        }
+
+        public double getLatencyTolerance() {
+            return latencyTolerance;
+        }
+
+        public void setLatencyTolerance(double latencyTolerance) {
+            this.latencyTolerance = latencyTolerance;
+        }
+
+        public double getRatePerSecond() {
+            return ratePerSecond;
+        }
+
+        public void setRatePerSecond(double ratePerSecond) {
+            this.ratePerSecond = ratePerSecond;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public int getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        public void setRetryAfterSeconds(int retryAfterSeconds) {
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.mapping_service.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit with a bounded wait queue.
+ *
+ * Callers beyond the limit wait (up to maxWait) only while fewer than maxQueue are already waiting; everyone
+ * else is rejected immediately so overload turns into fast rejections instead of growing latency. Ordering is
+ * not strictly FIFO: waiters are woken in arrival order, but a new caller that finds a slot free takes it at once
+ * and can overtake a waiter that was just woken, which then goes back to waiting for the rest of its maxWait.
+ * In adaptive mode the limit follows a gradient on observed latency: it shrinks when recent latency rises above
+ * the long-term baseline and grows (by about sqrt(limit)) while latency stays flat and the limit is actually used.
+ */
+public class ConcurrencyLimiter {
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition available = lock.newCondition();
+
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final boolean adaptive;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+
+    private double limit;
+    private int inFlight;
+    private int waiting;
+
+    // adaptive state (guarded by lock)
+    private double longRtt;
+    private double shortRtt;
+
+    public ConcurrencyLimiter(int maxConcurrent, int maxQueue, long maxWaitMs, boolean adaptive, int minConcurrent, double tolerance) {
+        this.maxLimit = Math.max(1, maxConcurrent);
+        this.minLimit = Math.max(1, Math.min(minConcurrent, this.maxLimit));
+        this.maxQueue = Math.max(0, maxQueue);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMs));
+        this.adaptive = adaptive;
+        this.tolerance = Math.max(1.0, tolerance);
+        this.limit = adaptive ? this.minLimit + (this.maxLimit - this.minLimit) / 2.0 : this.maxLimit;
+    }
+
+    /**
+     * Returns true once a slot is held; false if the queue is full or the wait timed out.
+     */
+    public boolean acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight < currentLimit()) {
+                inFlight++;
+                return true;
+            }
+            if (waiting >= maxQueue || maxWaitNanos == 0) return false;
+            waiting++;
+            try {
+                long remaining = maxWaitNanos;
+                while (inFlight >= currentLimit()) {
+                    if (remaining <= 0) return false;
+                    remaining = available.awaitNanos(remaining);
+                }
+                inFlight++;
+                return true;
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Release a slot acquired with {@link #acquire()}, reporting how long the request took.
+     */
+    public void release(long latencyNanos) {
+        lock.lock();
+        try {
+            int usedBefore = inFlight;
+            inFlight--;
+            if (adaptive) adjust(latencyNanos, usedBefore);
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return currentLimit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiting() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int currentLimit() {
+        return (int) limit;
+    }
+
+    private void adjust(long latencyNanos, int used) {
+        double rtt = Math.max(1, latencyNanos);
+        if (longRtt == 0) {
+            longRtt = rtt;
+            shortRtt = rtt;
+            return;
+        }
+        longRtt = longRtt * 0.99 + rtt * 0.01;
+        shortRtt = shortRtt * 0.8 + rtt * 0.2;
+        // let the baseline come back down after a latency spike has passed
+        if (longRtt > shortRtt * 2) longRtt *= 0.95;
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double target = limit * gradient;
+        // only probe upwards while the current limit is actually in use
+        if (gradient >= 1.0 && used * 2 >= limit) target += Math.sqrt(limit);
+        double next = limit * 0.8 + target * 0.2;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+        if (currentLimit() > used) available.signalAll();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.mapping_service.admission;
+
+/**
+ * Classic token bucket: {@code burst} tokens, refilled at {@code ratePerSecond}. Refill is computed lazily on access.
+ */
+public class TokenBucket {
+
+    private final double ratePerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double ratePerSecond, int burst) {
+        this.ratePerNano = ratePerSecond / 1e9;
+        this.capacity = Math.max(1, burst);
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Take one token. Returns 0 on success, otherwise the nanoseconds until a token becomes available.
+     */
+    public synchronized long tryConsume() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / ratePerNano);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * ratePerNano);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.mapping_service.compression;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * HTTP content codings supported for request and response bodies.
+ */
+public enum ContentEncoding {
+    GZIP("gzip") {
+        @Override
+        public InputStream decode(InputStream in) throws IOException {
+            return new GZIPInputStream(in, 8192);
+        }
+
+        @Override
+        public OutputStream encode(OutputStream out) throws IOException {
+            return new GZIPOutputStream(out, 8192);
+        }
+    },
+    ZSTD("zstd") {
+        @Override
+        public InputStream decode(InputStream in) throws IOException {
+            return new ZstdInputStream(in);
+        }
+
+        @Override
+        public OutputStream encode(OutputStream out) throws IOException {
+            // level 3 is zstd's default: gzip-level ratio at a fraction of the CPU
+            return new ZstdOutputStream(out, 3);
+        }
+    };
+
+    private final String token;
+
+    ContentEncoding(String token) {
+        this.token = token;
+    }
+
+    public String token() {
+        return token;
+    }
+
+    public abstract InputStream decode(InputStream in) throws IOException;
+
+    public abstract OutputStream encode(OutputStream out) throws IOException;
+
+    /**
+     * Returns the coding for a Content-Encoding value, or null if unsupported.
+     */
+    public static ContentEncoding fromToken(String value) {
+        String v = value.trim().toLowerCase(Locale.ROOT);
+        if (v.equals("x-gzip")) v = "gzip";
+        for (ContentEncoding e : values()) {
+            if (e.token.equals(v)) return e;
+        }
+        return null;
+    }
+
+    /**
+     * Pick the response coding from an Accept-Encoding header (RFC 9110 12.5.3): the supported coding with the
+     * highest q-value, zstd on a tie; "*" covers codings not listed; q=0 excludes. Returns null for no encoding,
+     * also when identity is listed with a higher q-value than any supported coding.
+     */
+    public static ContentEncoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) return null;
+        double gzip = -1;
+        double zstd = -1;
+        double any = -1;
+        double identity = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.trim().split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1.0;
+            for (int i = 1; i < params.length; i++) {
+                String p = params[i].trim().toLowerCase(Locale.ROOT);
+                if (p.startsWith("q=")) q = qValue(p.substring(2).trim());
+            }
+            switch (coding) {
+                case "zstd": zstd = Math.max(zstd, q); break;
+                case "gzip":
+                case "x-gzip": gzip = Math.max(gzip, q); break;
+                case "*": any = Math.max(any, q); break;
+                case "identity": identity = Math.max(identity, q); break;
+                default: break;
+            }
+        }
+        if (zstd < 0) zstd = any;
+        if (gzip < 0) gzip = any;
+        double best = Math.max(zstd, gzip);
+        if (best <= 0 || identity > best) return null;
+        return zstd >= gzip ? ZSTD : GZIP;
+    }
+
+    // qvalue = 0 to 1 with at most three decimals; anything else is treated as "not acceptable"
+    private static double qValue(String value) {
+        try {
+            double q = Double.parseDouble(value);
+            return q >= 0 && q <= 1 ? q : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package com.example.mapping_service.compression;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Decodes gzip/zstd request bodies (Content-Encoding) and encodes responses (Accept-Encoding).
+ *
+ * Responses smaller than minResponseSize are sent uncompressed; compressing tiny bodies costs more than it saves.
+ * Decoded request bodies are limited to maxDecodedRequestSize bytes (413, see {@link DecodedBodyLimitAdvice}) so
+ * a small compressed body cannot expand without bound.
+ *
+ * Async requests are finished on the last dispatch. Non-blocking reads get the body decoded from memory once the
+ * compressed bytes have arrived; non-blocking writes (a WriteListener) are sent uncompressed.
+ */
+public class ContentEncodingFilter extends OncePerRequestFilter {
+
+    private final int minResponseSize;
+    private final long maxDecodedRequestSize;
+
+    public ContentEncodingFilter(int minResponseSize, long maxDecodedRequestSize) {
+        this.minResponseSize = Math.max(0, minResponseSize);
+        this.maxDecodedRequestSize = maxDecodedRequestSize;
+    }
+
+    // async dispatches reuse the wrappers handed to startAsync; the response is finished on the last one
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            EncodingResponse encoding = WebUtils.getNativeResponse(response, EncodingResponse.class);
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                if (encoding != null && !isAsyncStarted(request)) encoding.finish();
+            }
+            return;
+        }
+
+        String contentEncoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (contentEncoding != null && !contentEncoding.isBlank() && !"identity".equalsIgnoreCase(contentEncoding.trim())) {
+            ContentEncoding coding = ContentEncoding.fromToken(contentEncoding);
+            if (coding == null) {
+                response.setStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE.value());
+                response.setHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, zstd");
+                return;
+            }
+            request = new DecodingRequest(request, coding, maxDecodedRequestSize);
+        }
+
+        // every response here depends on Accept-Encoding, also one sent uncompressed to a client that sent none
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        ContentEncoding responseCoding = ContentEncoding.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (responseCoding == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        EncodingResponse encoding = new EncodingResponse(response, responseCoding, minResponseSize);
+        try {
+            chain.doFilter(request, encoding);
+        } finally {
+            if (!isAsyncStarted(request)) encoding.finish();
+        }
+    }
+
+    private static final class DecodingRequest extends HttpServletRequestWrapper {
+        private final ContentEncoding coding;
+        private final long maxBytes;
+        private ServletInputStream stream;
+
+        DecodingRequest(HttpServletRequest request, ContentEncoding coding, long maxBytes) {
+            super(request);
+            this.coding = coding;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (stream == null) {
+                stream = new DecodingInputStream(super.getInputStream(), coding, maxBytes);
+            }
+            return stream;
+        }
+
+        // the decoded length is unknown, and the body is no longer encoded
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return hidden(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return hidden(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            List<String> names = Collections.list(super.getHeaderNames());
+            names.removeIf(DecodingRequest::hidden);
+            return Collections.enumeration(names);
+        }
+
+        private static boolean hidden(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+        }
+    }
+
+    /**
+     * Decodes while the body is read and fails with {@link DecodedBodyTooLargeException} past maxBytes decoded bytes.
+     */
+    private static final class DecodingInputStream extends ServletInputStream {
+        private final ServletInputStream raw;
+        private final ContentEncoding coding;
+        private final long maxBytes;
+        // created on the first blocking read, or from the buffered body in non-blocking mode
+        private InputStream decoded;
+        private long count;
+        private boolean finished;
+        private ReadListener listener;
+
+        DecodingInputStream(ServletInputStream raw, ContentEncoding coding, long maxBytes) {
+            this.raw = raw;
+            this.coding = coding;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            int n = read(one, 0, 1);
+            return n < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (decoded == null) {
+                if (listener != null) throw new IllegalStateException("read() while isReady() is false");
+                decoded = coding.decode(raw);
+            }
+            int n = decoded.read(b, off, len);
+            if (n < 0) {
+                finished = true;
+                return n;
+            }
+            count += n;
+            if (count > maxBytes) throw new DecodedBodyTooLargeException(maxBytes);
+            return n;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return listener == null || decoded != null;
+        }
+
+        /**
+         * Decoding would block on the compressed stream, so in non-blocking mode the compressed body is collected
+         * as the container delivers it and decoded from memory once it is complete.
+         */
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            if (listener != null) throw new IllegalStateException("ReadListener already set");
+            if (decoded != null) throw new IllegalStateException("setReadListener() after the body was read");
+            listener = readListener;
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            raw.setReadListener(new ReadListener() {
+                private final byte[] buf = new byte[8192];
+
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (raw.isReady()) {
+                        int n = raw.read(buf);
+                        if (n < 0) return;
+                        compressed.write(buf, 0, n);
+                        if (compressed.size() > maxBytes) throw new DecodedBodyTooLargeException(maxBytes);
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() throws IOException {
+                    decoded = coding.decode(new ByteArrayInputStream(compressed.toByteArray()));
+                    // the whole body is in memory now: isReady() stays true, so the listener reads to the end
+                    listener.onDataAvailable();
+                    if (finished) listener.onAllDataRead();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    listener.onError(t);
+                }
+            });
+        }
+    }
+
+    /**
+     * Buffers the body until it reaches the threshold, then switches to streaming through the encoder.
+     */
+    private static final class EncodingResponse extends HttpServletResponseWrapper {
+        private final ContentEncoding coding;
+        private final int threshold;
+        private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+        private OutputStream encoder;
+        private boolean passthrough;
+        private ServletOutputStream stream;
+        private PrintWriter writer;
+        private boolean finished;
+
+        EncodingResponse(HttpServletResponse response, ContentEncoding coding, int threshold) {
+            super(response);
+            this.coding = coding;
+            this.threshold = threshold;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (stream == null) {
+                stream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        write(new byte[]{(byte) b}, 0, 1);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        EncodingResponse.this.write(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        if (encoder != null) encoder.flush();
+                        else if (passthrough) getResponse().getOutputStream().flush();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        if (passthrough) {
+                            try {
+                                return getResponse().getOutputStream().isReady();
+                            } catch (IOException e) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+
+                    // the encoder needs blocking writes: non-blocking output goes out uncompressed
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        if (encoder != null) throw new IllegalStateException("setWriteListener() after compressed output started");
+                        try {
+                            ServletOutputStream out = getResponse().getOutputStream();
+                            if (!passthrough) {
+                                // still in blocking mode here
+                                passthrough = true;
+                                pending.writeTo(out);
+                                pending.reset();
+                            }
+                            out.setWriteListener(listener);
+                        } catch (IOException e) {
+                            listener.onError(e);
+                        }
+                    }
+                };
+            }
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), Charset.forName(getCharacterEncoding())));
+            }
+            return writer;
+        }
+
+        // the final length is only known in finish()
+        @Override
+        public void setContentLength(int len) {
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) super.setHeader(name, value);
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) super.addHeader(name, value);
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) writer.flush();
+            if (encoder != null) encoder.flush();
+            if (encoder != null || passthrough) super.flushBuffer();
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (encoder == null && !passthrough) pending.reset();
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            if (encoder == null && !passthrough) pending.reset();
+            super.reset();
+        }
+
+        private void write(byte[] b, int off, int len) throws IOException {
+            if (encoder != null) {
+                encoder.write(b, off, len);
+            } else if (passthrough) {
+                getResponse().getOutputStream().write(b, off, len);
+            } else {
+                pending.write(b, off, len);
+                if (pending.size() >= threshold) start();
+            }
+        }
+
+        private void start() throws IOException {
+            if (isCommitted() || getHeader(HttpHeaders.CONTENT_ENCODING) != null) {
+                passthrough = true;
+                pending.writeTo(getResponse().getOutputStream());
+            } else {
+                super.setHeader(HttpHeaders.CONTENT_ENCODING, coding.token());
+                encoder = coding.encode(getResponse().getOutputStream());
+                pending.writeTo(encoder);
+            }
+            pending.reset();
+        }
+
+        void finish() throws IOException {
+            if (finished) return;
+            finished = true;
+            if (writer != null) writer.flush();
+            if (encoder != null) {
+                encoder.close();
+            } else if (!passthrough && pending.size() > 0) {
+                getResponse().setContentLength(pending.size());
+                pending.writeTo(getResponse().getOutputStream());
+                pending.reset();
+            }
+        }
+    }
+}
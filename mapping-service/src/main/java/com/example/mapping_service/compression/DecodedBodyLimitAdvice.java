@@ -0,0 +1,25 @@
+package com.example.mapping_service.compression;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+/**
+ * Turns a request body that failed because it decoded past the size limit into 413 instead of 400. Any other
+ * unreadable body is rethrown to the default handling.
+ */
+@ControllerAdvice
+public class DecodedBodyLimitAdvice {
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<Void> unreadableBody(HttpMessageNotReadableException e) throws HttpMessageNotReadableException {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof DecodedBodyTooLargeException) {
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+            }
+        }
+        throw e;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.mapping_service.compression;
+
+import java.io.IOException;
+
+/**
+ * Thrown while reading a compressed request body that decodes to more than the configured maximum.
+ */
+public class DecodedBodyTooLargeException extends IOException {
+
+    public DecodedBodyTooLargeException(long maxBytes) {
+        super("decoded request body exceeds " + maxBytes + " bytes");
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.mapping_service.config;
+
+import com.example.mapping_service.admission.AdmissionFilter;
+import com.example.mapping_service.admission.AdmissionProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionConfig {
+
+    @Bean
+    public FilterRegistrationBean<AdmissionFilter> admissionFilter(AdmissionProperties properties) {
+        FilterRegistrationBean<AdmissionFilter> registration = new FilterRegistrationBean<>(new AdmissionFilter(properties));
+        registration.addUrlPatterns("/mapping/*");
+        // run early so rejected requests cost as little as possible (no body parsing)
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        registration.setEnabled(properties.isEnabled());
+        return registration;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.mapping_service.config;
+
+import com.example.mapping_service.model.DeltaTransformRequest;
+import com.example.mapping_service.model.DeltaTransformResponse;
+import com.example.mapping_service.model.FieldMapping;
+import com.example.mapping_service.model.JobRequest;
+import com.example.mapping_service.model.JobStatus;
+import com.example.mapping_service.model.MappingRequest;
+import com.example.mapping_service.model.MappingResponse;
+import com.example.mapping_service.model.PatchOperation;
+import com.example.mapping_service.model.TransformError;
+import com.example.mapping_service.model.TransformRequest;
+import com.example.mapping_service.model.TransformResponse;
+import com.example.mapping_service.model.ValidationResult;
+import com.example.mapping_service.model.ValidationRule;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Reflection and resource hints for the native image (./gradlew nativeCompile -Pnative) and Spring AOT.
+ *
+ * Every model class is bound by Jackson, often only nested inside another one (FieldMapping inside a
+ * TransformRequest, or deserialized from the Gemini reply), so they are all registered explicitly rather than
+ * relying on what AOT infers from controller signatures.
+ */
+@Configuration
+@RegisterReflectionForBinding({
+        FieldMapping.class,
+        MappingRequest.class,
+        MappingResponse.class,
+        TransformRequest.class,
+        TransformResponse.class,
+        TransformError.class,
+        DeltaTransformRequest.class,
+        DeltaTransformResponse.class,
+        PatchOperation.class,
+        ValidationRule.class,
+        ValidationResult.class,
+        JobRequest.class,
+        JobStatus.class
+})
+@ImportRuntimeHints(NativeHintsConfig.ZstdHints.class)
+public class NativeHintsConfig {
+
+    /**
+     * zstd-jni extracts its native library from the jar and its JNI code reads the stream fields directly.
+     */
+    static class ZstdHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            hints.resources().registerPattern("linux/*/libzstd-jni-*.so");
+            hints.resources().registerPattern("darwin/*/libzstd-jni-*.dylib");
+            hints.resources().registerPattern("win/*/libzstd-jni-*.dll");
+            for (String type : new String[]{
+                    "com.github.luben.zstd.ZstdInputStreamNoFinalizer",
+                    "com.github.luben.zstd.ZstdOutputStreamNoFinalizer",
+                    "com.github.luben.zstd.ZstdDirectBufferCompressingStreamNoFinalizer",
+                    "com.github.luben.zstd.ZstdDirectBufferDecompressingStreamNoFinalizer"}) {
+                hints.jni().registerType(TypeReference.of(type), MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_METHODS);
+            }
+        }
+    }
+}
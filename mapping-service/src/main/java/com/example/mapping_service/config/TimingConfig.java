@@ -0,0 +1,27 @@
+package com.example.mapping_service.config;
+
+import com.example.mapping_service.timing.ServerTimingFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Per-request phase timing: JFR events (com.example.mapping.Request / .Phase) always, the Server-Timing
+ * response header only when mapping.timing.server-timing is true.
+ */
+@Configuration
+public class TimingConfig {
+
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(
+            @Value("${mapping.timing.server-timing:false}") boolean serverTiming) {
+        FilterRegistrationBean<ServerTimingFilter> registration = new FilterRegistrationBean<>(new ServerTimingFilter(serverTiming));
+        registration.addUrlPatterns("/mapping/*");
+        // outside admission control (so queueing shows up as a phase) and compression (so the header is added
+        // after the body has been encoded)
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.mapping_service.config;
+
+import com.example.mapping_service.compression.ContentEncodingFilter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary wire formats and content encodings for service-to-service traffic.
+ *
+ * Clients pick the format with Content-Type / Accept (application/json, application/x-jackson-smile,
+ * application/cbor) and the compression with Content-Encoding / Accept-Encoding (gzip, zstd). The Smile and CBOR
+ * mappers come from Boot's Jackson builder, so modules and spring.jackson.* settings apply as they do for JSON.
+ */
+@Configuration
+public class WireFormatConfig {
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public FilterRegistrationBean<ContentEncodingFilter> contentEncodingFilter(
+            @Value("${mapping.compression.min-response-size:2048}") int minResponseSize,
+            @Value("${mapping.compression.max-decoded-request-size:16777216}") long maxDecodedRequestSize) {
+        FilterRegistrationBean<ContentEncodingFilter> registration = new FilterRegistrationBean<>(
+                new ContentEncodingFilter(minResponseSize, maxDecodedRequestSize));
+        registration.addUrlPatterns("/mapping/*");
+        // after admission control: rejected requests are never decompressed
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+}
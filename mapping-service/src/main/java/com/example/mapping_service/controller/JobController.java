@@ -0,0 +1,58 @@
+package com.example.mapping_service.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.mapping_service.model.JobRequest;
+import com.example.mapping_service.model.JobStatus;
+import com.example.mapping_service.service.TransformJobService;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/mapping/jobs")
+public class JobController {
+
+    @Autowired
+    private TransformJobService jobService;
+
+    @PostMapping
+    public ResponseEntity<JobStatus> submit(@RequestBody JobRequest request) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(jobService.submit(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RejectedExecutionException e) {
+            // job queue full
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<List<JobStatus>> list() {
+        return ResponseEntity.ok(jobService.list());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<JobStatus> get(@PathVariable String id) {
+        JobStatus status = jobService.get(id);
+        return status == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(status);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<JobStatus> cancel(@PathVariable String id) {
+        JobStatus status = jobService.cancel(id);
+        return status == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(status);
+    }
+}
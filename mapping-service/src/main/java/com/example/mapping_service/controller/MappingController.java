@@ -8,30 +8,49 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.mapping_service.model.DeltaTransformRequest;
+import com.example.mapping_service.model.DeltaTransformResponse;
 import com.example.mapping_service.model.FieldMapping;
 import com.example.mapping_service.model.MappingRequest;
 import com.example.mapping_service.model.MappingResponse;
+import com.example.mapping_service.model.PatchOperation;
 import com.example.mapping_service.model.TransformRequest;
 import com.example.mapping_service.model.TransformResponse;
+import com.example.mapping_service.model.ValidationResult;
+import com.example.mapping_service.service.DeltaTransformService;
+import com.example.mapping_service.service.MappingPlan;
 import com.example.mapping_service.service.MappingService;
 import com.example.mapping_service.service.GeminiAIService;
+import com.example.mapping_service.service.TemplateService;
+import com.example.mapping_service.service.TransformErrors;
+import com.example.mapping_service.service.ValidationService;
+import com.example.mapping_service.timing.PhaseTimer;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/mapping")
 public class MappingController {
 
+    // per-response caps; errorCount still reports the full number
+    private static final int MAX_ERRORS = 100;
+    private static final int MAX_ERROR_MESSAGES = 10;
+
     @Autowired
     private MappingService mappingService;
 
     @Autowired
     private GeminiAIService geminiAIService;
 
-    // Simple in-memory templates store for the POC
-    private final List<MappingResponse> templates = Collections.synchronizedList(new ArrayList<>());
+    @Autowired
+    private ValidationService validationService;
+
+    @Autowired
+    private TemplateService templateService;
+
+    @Autowired
+    private DeltaTransformService deltaTransformService;
 
     @PostMapping("/suggest")
     public ResponseEntity<MappingResponse> suggest(@RequestBody MappingRequest request) {
@@ -39,7 +58,7 @@ public class MappingController {
             List<FieldMapping> mappings = geminiAIService.generateMappings(request.getSourceFormat(), request.getTargetFormat());
             MappingResponse resp = new MappingResponse(mappings);
             // store template for demo purposes
-            templates.add(resp);
+            templateService.add(resp);
             return ResponseEntity.ok(resp);
         } catch (Exception e) {
             e.printStackTrace();
@@ -51,9 +70,59 @@ public class MappingController {
     public ResponseEntity<TransformResponse> transform(@RequestBody TransformRequest request) {
         try {
             // apply mappings to source data
-            var transformed = mappingService.applyMappings(request.getSourceData(), request.getMappings());
+            TransformErrors errors = new TransformErrors(MAX_ERRORS, MAX_ERROR_MESSAGES);
+            MappingPlan plan;
+            try (PhaseTimer.Phase phase = PhaseTimer.start("plan")) {
+                plan = mappingService.compile(request.getMappings());
+            }
+            Map<String, Object> transformed;
+            try (PhaseTimer.Phase phase = PhaseTimer.start("transform")) {
+                transformed = mappingService.apply(plan, request.getSourceData(), errors);
+            }
             TransformResponse resp = new TransformResponse(transformed);
+            if (errors.getCount() > 0) {
+                resp.setErrors(errors.getErrors());
+                resp.setErrorCount(errors.getCount());
+            }
+            if (request.isValidate()) {
+                // validate the output in the same pass instead of a second call to validation-service
+                ValidationService.CompiledRuleSet rules = request.getValidationRules() == null
+                        ? validationService.defaultRules()
+                        : validationService.compile(request.getValidationRules());
+                try (PhaseTimer.Phase phase = PhaseTimer.start("validate")) {
+                    List<ValidationResult> results = validationService.validate(transformed, rules);
+                    resp.setValidationResults(results);
+                    resp.setValid(ValidationService.allValid(results));
+                }
+            }
+            return ResponseEntity.ok(resp);
+        } catch (IllegalArgumentException e) {
+            // malformed array paths, invalid validation rule definitions, or custom rules with the remote backend
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(500).build();
+        }
+    }
+
+    @PostMapping("/transform/delta")
+    public ResponseEntity<DeltaTransformResponse> transformDelta(@RequestBody DeltaTransformRequest request) {
+        try {
+            // re-run only the mappings the source patch touches and answer with a patch for the target
+            TransformErrors errors = new TransformErrors(MAX_ERRORS, MAX_ERROR_MESSAGES);
+            List<PatchOperation> patch;
+            try (PhaseTimer.Phase phase = PhaseTimer.start("delta")) {
+                patch = deltaTransformService.delta(request, errors);
+            }
+            DeltaTransformResponse resp = new DeltaTransformResponse(patch);
+            if (errors.getCount() > 0) {
+                resp.setErrors(errors.getErrors());
+                resp.setErrorCount(errors.getCount());
+            }
             return ResponseEntity.ok(resp);
+        } catch (IllegalArgumentException e) {
+            // malformed patch, or one that does not apply to previousSource
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(500).build();
@@ -62,6 +131,6 @@ public class MappingController {
 
     @GetMapping("/templates")
     public ResponseEntity<List<MappingResponse>> getTemplates() {
-        return ResponseEntity.ok(new ArrayList<>(templates));
+        return ResponseEntity.ok(templateService.list());
     }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.example.mapping_service.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recompute only the target fields affected by a change to the source record.
+ */
+public class DeltaTransformRequest {
+    // either mappings or a stored template
+    private List<FieldMapping> mappings;
+    private Integer templateId;
+    // the target previously returned for this record
+    private Map<String, Object> previousTarget;
+    // optional; without it only mappings whose whole source value is in the patch can be recomputed
+    private Map<String, Object> previousSource;
+    // RFC 6902 JSON Patch (array) or RFC 7386 merge patch (object) against the source
+    private Object patch;
+
+    public DeltaTransformRequest() {}
+
+    public List<FieldMapping> getMappings() {
+        return mappings;
+    }
+
+    public void setMappings(List<FieldMapping> mappings) {
+        this.mappings = mappings;
+    }
+
+    public Integer getTemplateId() {
+        return templateId;
+    }
+
+    public void setTemplateId(Integer templateId) {
+        this.templateId = templateId;
+    }
+
+    public Map<String, Object> getPreviousTarget() {
+        return previousTarget;
+    }
+
+    public void setPreviousTarget(Map<String, Object> previousTarget) {
+        this.previousTarget = previousTarget;
+    }
+
+    public Map<String, Object> getPreviousSource() {
+        return previousSource;
+    }
+
+    public void setPreviousSource(Map<String, Object> previousSource) {
+        this.previousSource = previousSource;
+    }
+
+    public Object getPatch() {
+        return patch;
+    }
+
+    public void setPatch(Object patch) {
+        this.patch = patch;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.mapping_service.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+public class DeltaTransformResponse {
+    // JSON Patch turning the previous target into the new one; empty when nothing changed
+    private List<PatchOperation> patch;
+    // populated only when some mapping failed or could not be recomputed
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<TransformError> errors;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer errorCount;
+
+    public DeltaTransformResponse() {}
+
+    public DeltaTransformResponse(List<PatchOperation> patch) {
+        this.patch = patch;
+    }
+
+    public List<PatchOperation> getPatch() {
+        return patch;
+    }
+
+    public void setPatch(List<PatchOperation> patch) {
+        this.patch = patch;
+    }
+
+    public List<TransformError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<TransformError> errors) {
+        this.errors = errors;
+    }
+
+    public Integer getErrorCount() {
+        return errorCount;
+    }
+
+    public void setErrorCount(Integer errorCount) {
+        this.errorCount = errorCount;
+    }
+}
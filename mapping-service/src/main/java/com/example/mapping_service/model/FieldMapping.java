@@ -1,5 +1,9 @@
 package com.example.mapping_service.model;
 
+/**
+ * Maps one source path to one target path. Paths are dot-separated field names and may address arrays:
+ * {@code contacts[0].phone} selects an element, {@code items[*].price} maps every element.
+ */
 public class FieldMapping {
     private String sourcePath;
     private String targetPath;
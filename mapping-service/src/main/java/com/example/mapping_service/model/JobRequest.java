@@ -0,0 +1,85 @@
+package com.example.mapping_service.model;
+
+import java.util.List;
+
+/**
+ * Bulk transform job submission. The input is a local NDJSON file (one JSON object per line);
+ * mappings come either inline or from a stored template (index into /mapping/templates).
+ */
+public class JobRequest {
+    private String inputPath;
+    private String outputPath;
+    private Integer templateId;
+    private List<FieldMapping> mappings;
+    private int chunkSize;
+    // > 1 switches to memory-mapped, segment-parallel processing
+    private int parallelism;
+    // segmented runs: concatenate part files into outputPath (default) or keep them as <output>.part-NNNNN
+    private Boolean mergeOutput;
+
+    public JobRequest() {}
+
+    public JobRequest(String inputPath, String outputPath, Integer templateId, List<FieldMapping> mappings, int chunkSize) {
+        this.inputPath = inputPath;
+        this.outputPath = outputPath;
+        this.templateId = templateId;
+        this.mappings = mappings;
+        this.chunkSize = chunkSize;
+    }
+
+    public String getInputPath() {
+        return inputPath;
+    }
+
+    public void setInputPath(String inputPath) {
+        this.inputPath = inputPath;
+    }
+
+    public String getOutputPath() {
+        return outputPath;
+    }
+
+    public void setOutputPath(String outputPath) {
+        this.outputPath = outputPath;
+    }
+
+    public Integer getTemplateId() {
+        return templateId;
+    }
+
+    public void setTemplateId(Integer templateId) {
+        this.templateId = templateId;
+    }
+
+    public List<FieldMapping> getMappings() {
+        return mappings;
+    }
+
+    public void setMappings(List<FieldMapping> mappings) {
+        this.mappings = mappings;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public Boolean getMergeOutput() {
+        return mergeOutput;
+    }
+
+    public void setMergeOutput(Boolean mergeOutput) {
+        this.mergeOutput = mergeOutput;
+    }
+}
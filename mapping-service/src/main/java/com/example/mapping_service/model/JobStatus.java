@@ -0,0 +1,144 @@
+package com.example.mapping_service.model;
+
+/**
+ * Point-in-time snapshot of a bulk transform job.
+ */
+public class JobStatus {
+    private String id;
+    private String state;
+    private String inputPath;
+    private String outputPath;
+    private long recordsProcessed;
+    private long recordsFailed;
+    private long fieldErrors;
+    private long chunksCompleted;
+    private int segments;
+    private long bytesProcessed;
+    private long totalBytes;
+    private boolean resumed;
+    private double recordsPerSecond;
+    private Long etaSeconds;
+    private String error;
+
+    public JobStatus() {}
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public String getInputPath() {
+        return inputPath;
+    }
+
+    public void setInputPath(String inputPath) {
+        this.inputPath = inputPath;
+    }
+
+    public String getOutputPath() {
+        return outputPath;
+    }
+
+    public void setOutputPath(String outputPath) {
+        this.outputPath = outputPath;
+    }
+
+    public long getRecordsProcessed() {
+        return recordsProcessed;
+    }
+
+    public void setRecordsProcessed(long recordsProcessed) {
+        this.recordsProcessed = recordsProcessed;
+    }
+
+    public long getRecordsFailed() {
+        return recordsFailed;
+    }
+
+    public void setRecordsFailed(long recordsFailed) {
+        this.recordsFailed = recordsFailed;
+    }
+
+    public long getFieldErrors() {
+        return fieldErrors;
+    }
+
+    public void setFieldErrors(long fieldErrors) {
+        this.fieldErrors = fieldErrors;
+    }
+
+    public long getChunksCompleted() {
+        return chunksCompleted;
+    }
+
+    public void setChunksCompleted(long chunksCompleted) {
+        this.chunksCompleted = chunksCompleted;
+    }
+
+    public int getSegments() {
+        return segments;
+    }
+
+    public void setSegments(int segments) {
+        this.segments = segments;
+    }
+
+    public long getBytesProcessed() {
+        return bytesProcessed;
+    }
+
+    public void setBytesProcessed(long bytesProcessed) {
+        this.bytesProcessed = bytesProcessed;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public void setTotalBytes(long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    public void setResumed(boolean resumed) {
+        this.resumed = resumed;
+    }
+
+    public double getRecordsPerSecond() {
+        return recordsPerSecond;
+    }
+
+    public void setRecordsPerSecond(double recordsPerSecond) {
+        this.recordsPerSecond = recordsPerSecond;
+    }
+
+    public Long getEtaSeconds() {
+        return etaSeconds;
+    }
+
+    public void setEtaSeconds(Long etaSeconds) {
+        this.etaSeconds = etaSeconds;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
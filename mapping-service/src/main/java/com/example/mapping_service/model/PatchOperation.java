@@ -0,0 +1,45 @@
+package com.example.mapping_service.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One RFC 6902 JSON Patch operation against the target document.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PatchOperation {
+    private String op;
+    private String path;
+    private Object value;
+
+    public PatchOperation() {}
+
+    public PatchOperation(String op, String path, Object value) {
+        this.op = op;
+        this.path = path;
+        this.value = value;
+    }
+
+    public String getOp() {
+        return op;
+    }
+
+    public void setOp(String op) {
+        this.op = op;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public void setValue(Object value) {
+        this.value = value;
+    }
+}
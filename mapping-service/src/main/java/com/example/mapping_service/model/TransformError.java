@@ -0,0 +1,53 @@
+package com.example.mapping_service.model;
+
+/**
+ * One mapping that could not be applied cleanly to a record. {@code message} is only filled in for a sample of
+ * the errors in a response; the code is always there.
+ */
+public class TransformError {
+    private int mappingIndex;
+    private String sourcePath;
+    private String code;
+    private String message;
+
+    public TransformError() {}
+
+    public TransformError(int mappingIndex, String sourcePath, String code, String message) {
+        this.mappingIndex = mappingIndex;
+        this.sourcePath = sourcePath;
+        this.code = code;
+        this.message = message;
+    }
+
+    public int getMappingIndex() {
+        return mappingIndex;
+    }
+
+    public void setMappingIndex(int mappingIndex) {
+        this.mappingIndex = mappingIndex;
+    }
+
+    public String getSourcePath() {
+        return sourcePath;
+    }
+
+    public void setSourcePath(String sourcePath) {
+        this.sourcePath = sourcePath;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -6,6 +6,10 @@ import java.util.Map;
 public class TransformRequest {
     private Map<String, Object> sourceData;
     private List<FieldMapping> mappings;
+    // when true the transformed output is validated in the same pass
+    private boolean validate;
+    // optional rule set; the built-in defaults are used when null
+    private List<ValidationRule> validationRules;
 
     public TransformRequest() {}
 
@@ -29,4 +33,20 @@ public class TransformRequest {
     public void setMappings(List<FieldMapping> mappings) {
         this.mappings = mappings;
     }
+
+    public boolean isValidate() {
+        return validate;
+    }
+
+    public void setValidate(boolean validate) {
+        this.validate = validate;
+    }
+
+    public List<ValidationRule> getValidationRules() {
+        return validationRules;
+    }
+
+    public void setValidationRules(List<ValidationRule> validationRules) {
+        this.validationRules = validationRules;
+    }
 }
@@ -1,9 +1,22 @@
 package com.example.mapping_service.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
 import java.util.Map;
 
 public class TransformResponse {
     private Map<String, Object> transformedData;
+    // populated only when validation was requested
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean valid;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<ValidationResult> validationResults;
+    // populated only when some mapping failed; errors is capped, errorCount is the full count
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<TransformError> errors;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer errorCount;
 
     public TransformResponse() {}
 
@@ -18,4 +31,36 @@ public class TransformResponse {
     public void setTransformedData(Map<String, Object> transformedData) {
         this.transformedData = transformedData;
     }
+
+    public Boolean getValid() {
+        return valid;
+    }
+
+    public void setValid(Boolean valid) {
+        this.valid = valid;
+    }
+
+    public List<ValidationResult> getValidationResults() {
+        return validationResults;
+    }
+
+    public void setValidationResults(List<ValidationResult> validationResults) {
+        this.validationResults = validationResults;
+    }
+
+    public List<TransformError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<TransformError> errors) {
+        this.errors = errors;
+    }
+
+    public Integer getErrorCount() {
+        return errorCount;
+    }
+
+    public void setErrorCount(Integer errorCount) {
+        this.errorCount = errorCount;
+    }
 }
@@ -0,0 +1,42 @@
+package com.example.mapping_service.model;
+
+/**
+ * Per-field validation outcome. Same shape as the validation-service results: {field, valid, error}.
+ */
+public class ValidationResult {
+    private String field;
+    private boolean valid;
+    private String error;
+
+    public ValidationResult() {}
+
+    public ValidationResult(String field, boolean valid, String error) {
+        this.field = field;
+        this.valid = valid;
+        this.error = error;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public void setField(String field) {
+        this.field = field;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    public void setValid(boolean valid) {
+        this.valid = valid;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
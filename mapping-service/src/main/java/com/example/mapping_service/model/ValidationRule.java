@@ -0,0 +1,99 @@
+package com.example.mapping_service.model;
+
+import java.util.List;
+
+/**
+ * A single declarative validation rule evaluated against transformed output.
+ *
+ * Supported types: required, pattern, range, digits, min_age.
+ * For pattern/digits/min_age/range a missing field is not reported (use a separate required rule).
+ * A pattern must match the whole value, as if it were anchored with ^ and $.
+ */
+public class ValidationRule {
+    private String field;
+    private List<String> aliases;
+    private String type;
+    private String pattern;
+    private Double min;
+    private Double max;
+    private String message;
+
+    public ValidationRule() {}
+
+    public ValidationRule(String field, List<String> aliases, String type, String pattern, Double min, Double max, String message) {
+        this.field = field;
+        this.aliases = aliases;
+        this.type = type;
+        this.pattern = pattern;
+        this.min = min;
+        this.max = max;
+        this.message = message;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public void setField(String field) {
+        this.field = field;
+    }
+
+    public List<String> getAliases() {
+        return aliases;
+    }
+
+    public void setAliases(List<String> aliases) {
+        this.aliases = aliases;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public void setPattern(String pattern) {
+        this.pattern = pattern;
+    }
+
+    public Double getMin() {
+        return min;
+    }
+
+    public void setMin(Double min) {
+        this.min = min;
+    }
+
+    public Double getMax() {
+        return max;
+    }
+
+    public void setMax(Double max) {
+        this.max = max;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    @Override
+    public String toString() {
+        return "ValidationRule{" +
+                "field='" + field + '\'' +
+                ", type='" + type + '\'' +
+                ", pattern='" + pattern + '\'' +
+                ", min=" + min +
+                ", max=" + max +
+                '}';
+    }
+}
@@ -0,0 +1,463 @@
+package com.example.mapping_service.service;
+
+import com.example.mapping_service.model.DeltaTransformRequest;
+import com.example.mapping_service.model.PatchOperation;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Delta transforms for CDC-style feeds: given the previous target and a patch against the source, re-run only
+ * the mappings the patch can affect and return a JSON Patch against the target.
+ *
+ * The source trie of the compiled plan doubles as the dependency index from source paths to mappings. Target
+ * values are patched at their root, the key path down to the first array segment: array elements are assembled
+ * from several mappings, so arrays are replaced whole. Mappings writing to overlapping roots are re-run together,
+ * which keeps overwrite order and object merging the same as in a full transform.
+ *
+ * With previousSource the patch is applied to it and every affected mapping can be recomputed. Without it only
+ * mappings whose complete source value is in the patch can; the others are reported as DELTA_UNRESOLVED and
+ * their target roots are left out of the patch. The partial document is never padded: an array index past the
+ * elements the patch itself carries is treated like a value the patch does not carry.
+ */
+@Service
+public class DeltaTransformService {
+
+    private final MappingService mappingService;
+    private final TemplateService templateService;
+
+    public DeltaTransformService(MappingService mappingService, TemplateService templateService) {
+        this.mappingService = mappingService;
+        this.templateService = templateService;
+    }
+
+    /**
+     * Throws IllegalArgumentException for a missing plan or patch, malformed patches and JSON Patch operations
+     * that do not apply to previousSource.
+     */
+    public List<PatchOperation> delta(DeltaTransformRequest request, TransformErrors errors) {
+        MappingPlan plan;
+        if (request.getTemplateId() != null) {
+            plan = templateService.plan(request.getTemplateId());
+            if (plan == null) {
+                throw new IllegalArgumentException("unknown template: " + request.getTemplateId());
+            }
+        } else if (request.getMappings() != null && !request.getMappings().isEmpty()) {
+            plan = mappingService.compile(request.getMappings());
+        } else {
+            throw new IllegalArgumentException("either mappings or templateId is required");
+        }
+        if (request.getPatch() == null) {
+            throw new IllegalArgumentException("patch is required");
+        }
+        Map<String, Object> previousTarget = request.getPreviousTarget() == null ? new LinkedHashMap<>() : request.getPreviousTarget();
+        return delta(plan, previousTarget, request.getPreviousSource(), request.getPatch(), errors);
+    }
+
+    List<PatchOperation> delta(MappingPlan plan, Map<String, Object> previousTarget, Map<String, Object> previousSource,
+                               Object patch, TransformErrors errors) {
+        MappingPlan.Step[] steps = plan.steps();
+        boolean full = previousSource != null;
+        SourcePatch source = new SourcePatch(plan, full ? previousSource : new LinkedHashMap<>(), full);
+        if (patch instanceof List) {
+            for (Object op : (List<?>) patch) source.apply(op);
+        } else if (patch instanceof Map) {
+            source.merge(new ArrayList<>(), (Map<?, ?>) patch);
+        } else {
+            throw new IllegalArgumentException("patch must be a JSON Patch array or a merge-patch object");
+        }
+
+        // mappings writing into overlapping target roots are recomputed together
+        String[][] roots = new String[steps.length][];
+        for (int k = 0; k < steps.length; k++) roots[k] = root(steps[k].targetPath);
+        boolean[] rerun = source.impacted.clone();
+        for (boolean grew = true; grew; ) {
+            grew = false;
+            for (int i = 0; i < steps.length; i++) {
+                if (!rerun[i]) continue;
+                for (int j = 0; j < steps.length; j++) {
+                    if (rerun[j] || !(startsWith(roots[i], roots[j]) || startsWith(roots[j], roots[i]))) continue;
+                    rerun[j] = true;
+                    // its source did not change, so only previousSource can tell what it writes
+                    if (!full) source.unresolved[j] = true;
+                    grew = true;
+                }
+            }
+        }
+
+        // outermost roots only; a root inside another is covered by it
+        List<String[]> top = new ArrayList<>();
+        for (int k = 0; k < steps.length; k++) {
+            if (!rerun[k]) continue;
+            boolean covered = false;
+            for (int j = 0; j < steps.length && !covered; j++) {
+                covered = rerun[j] && roots[j].length < roots[k].length && startsWith(roots[k], roots[j]);
+            }
+            for (int t = 0; t < top.size() && !covered; t++) covered = startsWith(roots[k], top.get(t));
+            if (!covered) top.add(roots[k]);
+        }
+        List<String[]> resolved = new ArrayList<>(top.size());
+        for (String[] root : top) {
+            boolean ok = true;
+            for (int k = 0; k < steps.length && ok; k++) {
+                ok = !(rerun[k] && source.unresolved[k] && startsWith(roots[k], root));
+            }
+            if (ok) {
+                resolved.add(root);
+                continue;
+            }
+            for (int k = 0; k < steps.length; k++) {
+                if (!rerun[k] || !startsWith(roots[k], root)) continue;
+                if (source.unresolved[k]) errors.add(steps[k], TransformErrors.DELTA_UNRESOLVED, toPointer(root, root.length));
+                rerun[k] = false;
+            }
+        }
+        if (resolved.isEmpty()) return new ArrayList<>();
+
+        Map<String, Object> next = mappingService.applyOnly(plan, source.doc, rerun, errors);
+        List<PatchOperation> ops = new ArrayList<>();
+        Set<String> added = new HashSet<>();
+        for (String[] root : resolved) diff(previousTarget, next, root, ops, added);
+        return ops;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void diff(Map<String, Object> previous, Map<String, Object> next, String[] root,
+                             List<PatchOperation> ops, Set<String> added) {
+        Object before = previous;
+        Object after = next;
+        for (int i = 0; i < root.length; i++) {
+            Object b = before instanceof Map ? ((Map<String, Object>) before).get(root[i]) : null;
+            Object a = after instanceof Map ? ((Map<String, Object>) after).get(root[i]) : null;
+            if (b == null) {
+                // nothing there yet: add the new subtree at the first missing level (once for all roots below it)
+                String path = toPointer(root, i + 1);
+                if (a != null && added.add(path)) ops.add(new PatchOperation("add", path, a));
+                return;
+            }
+            before = b;
+            after = a;
+        }
+        if (after == null) {
+            ops.add(new PatchOperation("remove", toPointer(root, root.length), null));
+        } else if (!after.equals(before)) {
+            ops.add(new PatchOperation("replace", toPointer(root, root.length), after));
+        }
+    }
+
+    // key path down to the first array segment
+    private static String[] root(MappingPlan.Seg[] path) {
+        int n = 0;
+        while (n < path.length && path[n].kind == MappingPlan.Seg.KEY) n++;
+        String[] keys = new String[n];
+        for (int i = 0; i < n; i++) keys[i] = path[i].key;
+        return keys;
+    }
+
+    private static boolean startsWith(String[] path, String[] prefix) {
+        if (prefix.length > path.length) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if (!prefix[i].equals(path[i])) return false;
+        }
+        return true;
+    }
+
+    private static String toPointer(String[] keys, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) sb.append('/').append(keys[i].replace("~", "~0").replace("/", "~1"));
+        return sb.toString();
+    }
+
+    static List<String> parsePointer(Object raw) {
+        if (!(raw instanceof String)) {
+            throw new IllegalArgumentException("path must be a JSON Pointer string");
+        }
+        String s = (String) raw;
+        List<String> tokens = new ArrayList<>();
+        if (s.isEmpty()) return tokens;
+        if (s.charAt(0) != '/') {
+            throw new IllegalArgumentException("JSON Pointer must start with '/': " + s);
+        }
+        for (String t : s.substring(1).split("/", -1)) tokens.add(t.replace("~1", "/").replace("~0", "~"));
+        return tokens;
+    }
+
+    /**
+     * Applies the source patch and records which steps it touches. In full mode the patch is applied to
+     * previousSource in place (it was deserialized for this request only); otherwise a partial document is built
+     * from the values the patch carries.
+     */
+    private static final class SourcePatch {
+        final MappingPlan plan;
+        final Map<String, Object> doc;
+        final boolean full;
+        final boolean[] impacted;
+        final boolean[] unresolved;
+
+        SourcePatch(MappingPlan plan, Map<String, Object> doc, boolean full) {
+            this.plan = plan;
+            this.doc = doc;
+            this.full = full;
+            this.impacted = new boolean[plan.steps().length];
+            this.unresolved = new boolean[plan.steps().length];
+        }
+
+        // RFC 6902
+        void apply(Object raw) {
+            if (!(raw instanceof Map)) {
+                throw new IllegalArgumentException("JSON Patch operations must be objects");
+            }
+            Map<?, ?> op = (Map<?, ?>) raw;
+            String name = String.valueOf(op.get("op"));
+            List<String> path = parsePointer(op.get("path"));
+            switch (name) {
+                case "add":
+                case "replace": {
+                    if (!op.containsKey("value")) {
+                        throw new IllegalArgumentException(name + " needs a value");
+                    }
+                    // inserting into an array shifts every element after it
+                    boolean shifts = "add".equals(name) && inArray(path);
+                    boolean known = !shifts;
+                    if (full) {
+                        write(path, op.get("value"), "add".equals(name));
+                    } else if (!shifts) {
+                        known = put(path, op.get("value"), true);
+                    }
+                    changed(shifts ? parent(path) : path, known);
+                    break;
+                }
+                case "remove": {
+                    boolean shifts = inArray(path);
+                    if (full || !shifts) remove(path);
+                    changed(shifts ? parent(path) : path, !shifts);
+                    break;
+                }
+                case "move":
+                case "copy": {
+                    List<String> from = parsePointer(op.get("from"));
+                    boolean move = "move".equals(name);
+                    boolean shifts = inArray(path);
+                    if (move) {
+                        boolean fromShifts = inArray(from);
+                        if (full) {
+                            Object value = get(from);
+                            remove(from);
+                            write(path, value, true);
+                        } else if (!fromShifts) {
+                            remove(from);
+                        }
+                        changed(fromShifts ? parent(from) : from, !fromShifts);
+                    } else if (full) {
+                        write(path, deepCopy(get(from)), true);
+                    }
+                    // the moved or copied value is only known with previousSource
+                    changed(shifts ? parent(path) : path, false);
+                    break;
+                }
+                case "test":
+                    if (full && !Objects.equals(get(path), op.get("value"))) {
+                        throw new IllegalArgumentException("patch test failed at " + op.get("path"));
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("unsupported patch op: " + name);
+            }
+        }
+
+        // RFC 7386: objects merge key by key, null removes, anything else (arrays included) replaces
+        void merge(List<String> path, Map<?, ?> patch) {
+            for (Map.Entry<?, ?> e : patch.entrySet()) {
+                List<String> p = new ArrayList<>(path);
+                p.add(String.valueOf(e.getKey()));
+                Object v = e.getValue();
+                if (v instanceof Map) {
+                    if (full && !(get(p) instanceof Map)) {
+                        // a missing or non-object value is replaced by an object before merging into it
+                        put(p, new LinkedHashMap<>(), false);
+                        changed(p, true);
+                    } else if (!full && ((Map<?, ?>) v).isEmpty()) {
+                        // {} turns a non-object into {} and leaves an object alone; which one needs previousSource
+                        changed(p, false);
+                    }
+                    merge(p, (Map<?, ?>) v);
+                    continue;
+                }
+                if (v == null) {
+                    if (get(p) != null) remove(p);
+                } else {
+                    put(p, v, false);
+                }
+                changed(p, true);
+            }
+        }
+
+        private void changed(List<String> pointer, boolean known) {
+            plan.dependents(pointer, known, impacted, full ? null : unresolved);
+        }
+
+        private boolean inArray(List<String> path) {
+            if (path.isEmpty()) return false;
+            if (full) return get(parent(path)) instanceof List;
+            return MappingPlan.isArrayToken(path.get(path.size() - 1));
+        }
+
+        private static List<String> parent(List<String> path) {
+            return path.subList(0, path.size() - 1);
+        }
+
+        @SuppressWarnings("unchecked")
+        private Object get(List<String> path) {
+            Object node = doc;
+            for (String token : path) {
+                if (node instanceof Map) {
+                    node = ((Map<String, Object>) node).get(token);
+                } else if (node instanceof List && MappingPlan.isArrayToken(token) && !token.equals("-")) {
+                    List<Object> list = (List<Object>) node;
+                    int i = index(token, path);
+                    node = i < list.size() ? list.get(i) : null;
+                } else {
+                    return null;
+                }
+            }
+            return node;
+        }
+
+        // strict JSON Patch write against previousSource
+        @SuppressWarnings("unchecked")
+        private void write(List<String> path, Object value, boolean insert) {
+            if (path.isEmpty()) {
+                replaceDocument(value);
+                return;
+            }
+            Object container = get(parent(path));
+            String token = path.get(path.size() - 1);
+            if (container instanceof Map) {
+                Map<String, Object> map = (Map<String, Object>) container;
+                if (!insert && !map.containsKey(token)) {
+                    throw new IllegalArgumentException("nothing to replace at " + pointer(path));
+                }
+                map.put(token, value);
+            } else if (container instanceof List && MappingPlan.isArrayToken(token)) {
+                List<Object> list = (List<Object>) container;
+                int i = token.equals("-") ? list.size() : index(token, path);
+                if (i > list.size() || (!insert && i == list.size())) {
+                    throw new IllegalArgumentException("array index out of bounds at " + pointer(path));
+                }
+                if (insert) list.add(i, value);
+                else list.set(i, value);
+            } else {
+                throw new IllegalArgumentException("no container at " + pointer(path));
+            }
+        }
+
+        /**
+         * Lenient write creating missing parents: merge patches, and the partial document. Returns false, leaving
+         * the rest of the path unwritten, when an array index lies past the end of the array; the elements in
+         * between are unknown.
+         */
+        @SuppressWarnings("unchecked")
+        private boolean put(List<String> path, Object value, boolean indexesAreArrays) {
+            if (path.isEmpty()) {
+                replaceDocument(value);
+                return true;
+            }
+            Object node = doc;
+            for (int i = 0; i < path.size(); i++) {
+                String token = path.get(i);
+                boolean last = i == path.size() - 1;
+                Object child = last ? value : childOf(node, token, path);
+                if (!last && !(child instanceof Map) && !(child instanceof List && indexesAreArrays)) {
+                    child = indexesAreArrays && MappingPlan.isArrayToken(path.get(i + 1)) ? new ArrayList<>() : new LinkedHashMap<>();
+                } else if (!last) {
+                    node = child;
+                    continue;
+                }
+                if (node instanceof Map) {
+                    ((Map<String, Object>) node).put(token, child);
+                } else {
+                    List<Object> list = (List<Object>) node;
+                    int index = token.equals("-") ? list.size() : index(token, path);
+                    if (index > list.size()) return false;
+                    if (index == list.size()) list.add(child);
+                    else list.set(index, child);
+                }
+                node = child;
+            }
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Object childOf(Object node, String token, List<String> path) {
+            if (node instanceof Map) return ((Map<String, Object>) node).get(token);
+            if (node instanceof List && MappingPlan.isArrayToken(token) && !token.equals("-")) {
+                List<Object> list = (List<Object>) node;
+                int i = index(token, path);
+                return i < list.size() ? list.get(i) : null;
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void remove(List<String> path) {
+            if (path.isEmpty()) {
+                doc.clear();
+                return;
+            }
+            Object container = get(parent(path));
+            String token = path.get(path.size() - 1);
+            if (container instanceof Map && ((Map<String, Object>) container).containsKey(token)) {
+                ((Map<String, Object>) container).remove(token);
+            } else if (container instanceof List && MappingPlan.isArrayToken(token) && !token.equals("-")
+                    && index(token, path) < ((List<Object>) container).size()) {
+                ((List<Object>) container).remove(index(token, path));
+            } else if (full) {
+                throw new IllegalArgumentException("nothing to remove at " + pointer(path));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void replaceDocument(Object value) {
+            if (!(value instanceof Map)) {
+                throw new IllegalArgumentException("the source document must be an object");
+            }
+            Map<String, Object> copy = new LinkedHashMap<>((Map<String, Object>) value);
+            doc.clear();
+            doc.putAll(copy);
+        }
+
+        // isArrayToken has checked the digits; only the range is left
+        private static int index(String token, List<String> path) {
+            try {
+                return Integer.parseInt(token);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("array index out of range at " + pointer(path));
+            }
+        }
+
+        private static String pointer(List<String> path) {
+            return toPointer(path.toArray(new String[0]), path.size());
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Object deepCopy(Object value) {
+            if (value instanceof Map) {
+                Map<String, Object> copy = new LinkedHashMap<>();
+                ((Map<String, Object>) value).forEach((k, v) -> copy.put(k, deepCopy(v)));
+                return copy;
+            }
+            if (value instanceof List) {
+                List<Object> copy = new ArrayList<>();
+                for (Object v : (List<Object>) value) copy.add(deepCopy(v));
+                return copy;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.mapping_service.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads large NDJSON files through memory-mapped segments.
+ *
+ * {@link #split} cuts a file into newline-aligned segments that can be processed independently on separate
+ * threads; {@link #read} parses one segment record by record straight from the mapped buffer (Jackson's
+ * ByteBuffer-fed parser), so file contents are never copied into heap byte arrays.
+ */
+public final class MappedNdjsonReader {
+
+    // a single mapping is limited to 2GB; keep segments well below that
+    static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+    private static final int PROGRESS_INTERVAL = 1024;
+    private static final TypeReference<Map<String, Object>> RECORD_TYPE = new TypeReference<>() {};
+
+    private MappedNdjsonReader() {}
+
+    /**
+     * A byte range [start, end) of the file that begins at a record boundary and ends after a newline (or at EOF).
+     */
+    public static final class Segment {
+        private final int index;
+        private final long start;
+        private final long end;
+
+        Segment(int index, long start, long end) {
+            this.index = index;
+            this.start = start;
+            this.end = end;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+
+        public long length() {
+            return end - start;
+        }
+    }
+
+    public interface RecordHandler {
+        void record(Map<String, Object> record) throws IOException;
+
+        /** Called for lines that are not a JSON object. */
+        default void malformed() {}
+
+        /** Checked between records; returning true stops the segment early. */
+        default boolean cancelled() {
+            return false;
+        }
+
+        /** Bytes of the segment consumed since the previous call. */
+        default void progress(long bytes) {}
+
+        /**
+         * Called after every {@code chunkLines} lines with the offset within the segment where the next line
+         * starts, i.e. where reading can be resumed from.
+         */
+        default void chunk(long offset) throws IOException {}
+    }
+
+    /**
+     * Split the file into at least {@code parallelism} segments (more if needed to respect the mapping size limit).
+     * The result is deterministic for a given file, which the job checkpoint relies on.
+     */
+    public static List<Segment> split(FileChannel channel, int parallelism) throws IOException {
+        long size = channel.size();
+        List<Segment> segments = new ArrayList<>();
+        if (size == 0) return segments;
+        long count = Math.max(Math.max(1, parallelism), (size + MAX_SEGMENT_BYTES - 1) / MAX_SEGMENT_BYTES);
+        long start = 0;
+        for (long i = 1; i <= count && start < size; i++) {
+            long end = i == count ? size : nextLineStart(channel, Math.max(start, size * i / count), size);
+            if (end > start) {
+                segments.add(new Segment(segments.size(), start, end));
+                start = end;
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Parse every line of the segment from {@code offset} (a line start within the segment previously reported to
+     * {@link RecordHandler#chunk}, or 0) and hand the records to the handler, calling
+     * {@link RecordHandler#chunk} every {@code chunkLines} lines (never if 0). Lines longer than
+     * {@code maxLineBytes} are reported as malformed without being parsed.
+     * Returns false if the handler cancelled before the segment was fully consumed.
+     */
+    public static boolean read(FileChannel channel, Segment segment, long offset, int chunkLines, int maxLineBytes,
+                               ObjectMapper mapper, RecordHandler handler) throws IOException {
+        if (offset < 0 || offset > segment.length()) {
+            throw new IllegalArgumentException("offset " + offset + " outside segment " + segment.index);
+        }
+        MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, segment.start + offset, segment.length() - offset);
+        JsonFactory factory = mapper.getFactory();
+        ObjectReader reader = mapper.readerFor(RECORD_TYPE);
+        int limit = buf.limit();
+        int lineStart = 0;
+        int reported = 0;
+        int lines = 0;
+        while (lineStart < limit) {
+            if (handler.cancelled()) {
+                handler.progress(lineStart - reported);
+                return false;
+            }
+            int nl = lineStart;
+            while (nl < limit && buf.get(nl) != '\n') nl++;
+            int lineEnd = nl;
+            if (lineEnd > lineStart && buf.get(lineEnd - 1) == '\r') lineEnd--;
+            if (nl - lineStart > maxLineBytes) {
+                handler.malformed();
+            } else if (lineEnd > lineStart) {
+                Map<String, Object> record = parse(factory, reader, buf.slice(lineStart, lineEnd - lineStart));
+                if (record != null) {
+                    handler.record(record);
+                } else {
+                    handler.malformed();
+                }
+            }
+            lineStart = nl + 1;
+            lines++;
+            boolean chunkDone = chunkLines > 0 && lines % chunkLines == 0;
+            if (lines % PROGRESS_INTERVAL == 0 || chunkDone) {
+                handler.progress(lineStart - reported);
+                reported = lineStart;
+            }
+            if (chunkDone && lineStart < limit) {
+                handler.chunk(offset + lineStart);
+            }
+        }
+        handler.progress(limit - reported);
+        return true;
+    }
+
+    private static Map<String, Object> parse(JsonFactory factory, ObjectReader reader, ByteBuffer line) {
+        try (JsonParser parser = factory.createNonBlockingByteBufferParser()) {
+            ByteBufferFeeder feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+            feeder.feedInput(line);
+            feeder.endOfInput();
+            return reader.readValue(parser);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    // offset just after the first newline at or after pos, or size if there is none
+    private static long nextLineStart(FileChannel channel, long pos, long size) throws IOException {
+        ByteBuffer window = ByteBuffer.allocateDirect(64 * 1024);
+        while (pos < size) {
+            window.clear();
+            int n = channel.read(window, pos);
+            if (n <= 0) break;
+            for (int i = 0; i < n; i++) {
+                if (window.get(i) == '\n') return pos + i + 1;
+            }
+            pos += n;
+        }
+        return size;
+    }
+}
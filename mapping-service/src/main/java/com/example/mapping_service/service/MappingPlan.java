@@ -0,0 +1,622 @@
+package com.example.mapping_service.service;
+
+import com.example.mapping_service.model.FieldMapping;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compiled form of a mapping list, built once and reused for every record.
+ *
+ * Source and target paths are parsed up front, and all target paths are merged into a skeleton tree that knows
+ * each node's children, in first-mapping order. A record writes its values into flat slots, then the output is
+ * built from the skeleton with exactly sized maps: no per-record path parsing, rehashing or string building,
+ * and the field order is deterministic.
+ *
+ * Paths may address arrays: {@code contacts[0].phone} picks one element, {@code items[*].price} maps every
+ * element. A wildcard source yields one value per element; a wildcard target builds an array with one element
+ * per source element, so e.g. {@code items[*].price -> lines[*].amount} and {@code items[*].sku -> lines[*].sku}
+ * produce {@code lines: [{amount, sku}, ...]} in one pass. Values from non-wildcard sources are repeated into
+ * every element.
+ *
+ * Source paths are merged into a trie as well, so a record is walked once, depth first: a prefix shared by many
+ * mappings (customer.address.*) is looked up once and its values are handed to every mapping below it.
+ */
+public final class MappingPlan {
+
+    private static final Object ABSENT = new Object();
+    // target arrays are padded up to a fixed index, so the index must stay small
+    static final int MAX_TARGET_INDEX = 10_000;
+
+    private final List<FieldMapping> mappings;
+    private final Step[] steps;
+    private final SourceNode sourceRoot;
+    private final TargetNode root;
+    private final int slotCount;
+    private final int maxDepth;
+    // deepest [*] nesting of any source path
+    private final int sourceDepth;
+
+    private MappingPlan(List<FieldMapping> mappings, Step[] steps, SourceNode sourceRoot, TargetNode root, int slotCount,
+                        int maxDepth, int sourceDepth) {
+        this.mappings = mappings;
+        this.steps = steps;
+        this.sourceRoot = sourceRoot;
+        this.root = root;
+        this.slotCount = slotCount;
+        this.maxDepth = maxDepth;
+        this.sourceDepth = sourceDepth;
+    }
+
+    /**
+     * Throws IllegalArgumentException for malformed array paths and target indexes above {@link #MAX_TARGET_INDEX}.
+     */
+    public static MappingPlan compile(List<FieldMapping> mappings) {
+        List<FieldMapping> list = mappings == null ? List.of() : mappings;
+        TargetNode root = new TargetNode(null, 0);
+        int[] slots = {0};
+        List<Step> steps = new ArrayList<>(list.size());
+        for (int i = 0; i < list.size(); i++) {
+            FieldMapping fm = list.get(i);
+            if (fm == null || fm.getSourcePath() == null || fm.getSourcePath().isEmpty()
+                    || fm.getTargetPath() == null || fm.getTargetPath().isEmpty()) {
+                continue;
+            }
+            String type = fm.getTransformationType() == null ? "" : fm.getTransformationType().toLowerCase(Locale.ROOT);
+            String targetPath = fm.getTargetPath();
+            Step step = new Step(i, fm, parse(fm.getSourcePath()), parseTarget(targetPath), type);
+            // split_name on a parent path fills <parent>.firstName and <parent>.lastName
+            if ("split_name".equals(type) && !(targetPath.endsWith("firstName") || targetPath.endsWith("lastName"))) {
+                step.splitToParent = true;
+                step.firstNameSlot = root.leaf(parse(targetPath + ".firstName"), slots);
+                step.lastNameSlot = root.leaf(parse(targetPath + ".lastName"), slots);
+            } else {
+                step.slot = root.leaf(parse(targetPath), slots);
+            }
+            steps.add(step);
+        }
+        SourceNode sourceRoot = new SourceNode(null);
+        int sourceDepth = 0;
+        for (int k = 0; k < steps.size(); k++) {
+            sourceRoot.add(steps.get(k).sourcePath, k);
+            sourceDepth = Math.max(sourceDepth, wildcards(steps.get(k).sourcePath));
+        }
+        sourceRoot.freeze();
+        int maxDepth = root.freeze();
+        return new MappingPlan(list, steps.toArray(new Step[0]), sourceRoot, root, slots[0], maxDepth, sourceDepth);
+    }
+
+    public List<FieldMapping> getMappings() {
+        return mappings;
+    }
+
+    public boolean isEmpty() {
+        return steps.length == 0;
+    }
+
+    Step[] steps() {
+        return steps;
+    }
+
+    Target newTarget() {
+        return new Target();
+    }
+
+    /**
+     * Walk the record once along the source trie. Returns the raw value for each step (same order as
+     * {@link #steps()}), null where the path does not exist; [*] reads yield a {@link Spread}.
+     */
+    Object[] readSources(Map<String, Object> source) {
+        return readSources(source, null);
+    }
+
+    /**
+     * Same as {@link #readSources(Map)}, but only descends into branches leading to a step flagged in
+     * {@code only} (null reads everything). Other steps may or may not get their value.
+     */
+    Object[] readSources(Map<String, Object> source, boolean[] only) {
+        Object[] raw = new Object[steps.length];
+        new SourceWalk(only).visitChildren(sourceRoot, source, raw, 0);
+        return raw;
+    }
+
+    private static boolean anyOf(int[] stepIndexes, boolean[] flags) {
+        for (int s : stepIndexes) {
+            if (flags[s]) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Dependency index for delta transforms: flags in {@code impacted} every step whose source value may change
+     * when the value at {@code pointer} (JSON Pointer tokens, "" for the whole record) changes. That is every
+     * step reading the changed value, something inside it or something enclosing it.
+     *
+     * Only steps reading the changed value or something inside it, without going through a [*] on the way, can
+     * be recomputed from the new value alone. When {@code unresolved} is non-null, every other impacted step is
+     * flagged there, and so is every impacted step when {@code known} is false.
+     */
+    void dependents(List<String> pointer, boolean known, boolean[] impacted, boolean[] unresolved) {
+        dependents(sourceRoot, pointer, 0, known, impacted, unresolved);
+    }
+
+    private void dependents(SourceNode node, List<String> pointer, int depth, boolean exact,
+                            boolean[] impacted, boolean[] unresolved) {
+        if (depth == pointer.size()) {
+            for (int s : node.stepsBelow) {
+                impacted[s] = true;
+                if (!exact && unresolved != null) unresolved[s] = true;
+            }
+            return;
+        }
+        // these read a value enclosing the change
+        for (int s : node.steps) {
+            impacted[s] = true;
+            if (unresolved != null) unresolved[s] = true;
+        }
+        String token = pointer.get(depth);
+        for (SourceNode child : node.children) {
+            Seg seg = child.seg;
+            if (seg.kind == Seg.KEY) {
+                if (seg.key.equals(token)) dependents(child, pointer, depth + 1, exact, impacted, unresolved);
+            } else if (seg.kind == Seg.INDEX) {
+                if (token.equals(Integer.toString(seg.index))) dependents(child, pointer, depth + 1, exact, impacted, unresolved);
+            } else if (isArrayToken(token)) {
+                // one element of a [*] read changed: the whole spread has to be read again
+                dependents(child, pointer, depth + 1, false, impacted, unresolved);
+            }
+        }
+    }
+
+    static boolean isArrayToken(String token) {
+        if (token.equals("-")) return true;
+        if (token.isEmpty() || (token.length() > 1 && token.charAt(0) == '0')) return false;
+        for (int i = 0; i < token.length(); i++) {
+            if (token.charAt(i) < '0' || token.charAt(i) > '9') return false;
+        }
+        return true;
+    }
+
+    /**
+     * Parse {@code a.b[0].c[*]} into segments. The first segment must be a field name. Trailing dots are ignored,
+     * as they were when paths were split with String.split.
+     */
+    static Seg[] parse(String path) {
+        int end = path.length();
+        while (end > 0 && path.charAt(end - 1) == '.') end--;
+        if (end == 0) {
+            throw new IllegalArgumentException("path must start with a field name: " + path);
+        }
+        List<Seg> segs = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= end; i++) {
+            if (i == end || path.charAt(i) == '.') {
+                parsePart(path, path.substring(start, i), segs);
+                start = i + 1;
+            }
+        }
+        if (segs.get(0).kind != Seg.KEY) {
+            throw new IllegalArgumentException("path must start with a field name: " + path);
+        }
+        return segs.toArray(new Seg[0]);
+    }
+
+    private static Seg[] parseTarget(String path) {
+        Seg[] segs = parse(path);
+        for (Seg s : segs) {
+            if (s.kind == Seg.INDEX && s.index > MAX_TARGET_INDEX) {
+                throw new IllegalArgumentException("target array index above " + MAX_TARGET_INDEX + ": " + path);
+            }
+        }
+        return segs;
+    }
+
+    private static void parsePart(String path, String part, List<Seg> segs) {
+        int bracket = part.indexOf('[');
+        if (bracket < 0) {
+            segs.add(new Seg(Seg.KEY, part, -1));
+            return;
+        }
+        if (bracket > 0) segs.add(new Seg(Seg.KEY, part.substring(0, bracket), -1));
+        int i = bracket;
+        while (i < part.length()) {
+            int close = part.indexOf(']', i);
+            if (part.charAt(i) != '[' || close < 0) {
+                throw new IllegalArgumentException("malformed array index in path: " + path);
+            }
+            String inner = part.substring(i + 1, close).trim();
+            if (inner.equals("*")) {
+                segs.add(new Seg(Seg.WILDCARD, null, -1));
+            } else {
+                try {
+                    int index = Integer.parseInt(inner);
+                    if (index < 0) throw new NumberFormatException();
+                    segs.add(new Seg(Seg.INDEX, null, index));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("array index must be * or a non-negative number: " + path);
+                }
+            }
+            i = close + 1;
+        }
+    }
+
+    static boolean hasWildcard(Seg[] path) {
+        return wildcards(path) > 0;
+    }
+
+    private static int wildcards(Seg[] path) {
+        int n = 0;
+        for (Seg s : path) {
+            if (s.kind == Seg.WILDCARD) n++;
+        }
+        return n;
+    }
+
+    /**
+     * One parsed path segment: a field name, a fixed array index or the [*] wildcard.
+     */
+    static final class Seg {
+        static final int KEY = 0;
+        static final int INDEX = 1;
+        static final int WILDCARD = 2;
+
+        final int kind;
+        final String key;
+        final int index;
+
+        Seg(int kind, String key, int index) {
+            this.kind = kind;
+            this.key = key;
+            this.index = index;
+        }
+
+        boolean sameAs(Seg other) {
+            return kind == other.kind && index == other.index && (key == null ? other.key == null : key.equals(other.key));
+        }
+    }
+
+    /**
+     * Values read through a [*] segment, one per array element (null where the element has no value).
+     * Nested for nested wildcards; never exposed in the output.
+     */
+    static final class Spread {
+        final List<Object> items;
+
+        Spread(List<Object> items) {
+            this.items = items;
+        }
+    }
+
+    /**
+     * One mapping with its paths pre-parsed.
+     */
+    static final class Step {
+        final int index;
+        final FieldMapping mapping;
+        final Seg[] sourcePath;
+        final boolean sourceWildcard;
+        // as written; for split_name onto a parent this is the parent
+        final Seg[] targetPath;
+        final String transformationType;
+        boolean splitToParent;
+        int slot = -1;
+        int firstNameSlot = -1;
+        int lastNameSlot = -1;
+
+        Step(int index, FieldMapping mapping, Seg[] sourcePath, Seg[] targetPath, String transformationType) {
+            this.index = index;
+            this.mapping = mapping;
+            this.sourcePath = sourcePath;
+            this.sourceWildcard = hasWildcard(sourcePath);
+            this.targetPath = targetPath;
+            this.transformationType = transformationType;
+        }
+    }
+
+    /**
+     * Source trie node: one path segment shared by every mapping whose source path passes through it.
+     */
+    private static final class SourceNode {
+        final Seg seg;
+        final List<SourceNode> childList = new ArrayList<>();
+        final List<Integer> stepList = new ArrayList<>();
+        SourceNode[] children;
+        // steps whose source path ends here
+        int[] steps;
+        // steps ending at or below this node (used by [*] nodes)
+        int[] stepsBelow;
+
+        SourceNode(Seg seg) {
+            this.seg = seg;
+        }
+
+        void add(Seg[] path, int step) {
+            SourceNode node = this;
+            for (Seg s : path) {
+                SourceNode next = null;
+                for (SourceNode c : node.childList) {
+                    if (c.seg.sameAs(s)) {
+                        next = c;
+                        break;
+                    }
+                }
+                if (next == null) {
+                    next = new SourceNode(s);
+                    node.childList.add(next);
+                }
+                node = next;
+            }
+            node.stepList.add(step);
+        }
+
+        List<Integer> freeze() {
+            children = childList.toArray(new SourceNode[0]);
+            steps = stepList.stream().mapToInt(Integer::intValue).toArray();
+            List<Integer> below = new ArrayList<>(stepList);
+            for (SourceNode c : children) below.addAll(c.freeze());
+            stepsBelow = below.stream().mapToInt(Integer::intValue).toArray();
+            return below;
+        }
+    }
+
+    private static final class TargetNode {
+        final String key;
+        // number of [*] levels above and including this node
+        final int depth;
+        final List<TargetNode> childList = new ArrayList<>();
+        final List<TargetNode> indexedList = new ArrayList<>();
+        final List<Integer> indexList = new ArrayList<>();
+        TargetNode element;
+        TargetNode[] children;
+        TargetNode[] indexed;
+        int[] indexes;
+        int[] elementSlots;
+        int listSize;
+        int capacity;
+        int slot = -1;
+
+        TargetNode(String key, int depth) {
+            this.key = key;
+            this.depth = depth;
+        }
+
+        int leaf(Seg[] path, int[] slots) {
+            TargetNode node = this;
+            for (Seg s : path) {
+                node = node.child(s);
+            }
+            if (node.slot < 0) node.slot = slots[0]++;
+            return node.slot;
+        }
+
+        private TargetNode child(Seg s) {
+            switch (s.kind) {
+                case Seg.WILDCARD:
+                    if (element == null) element = new TargetNode(null, depth + 1);
+                    return element;
+                case Seg.INDEX:
+                    for (int i = 0; i < indexList.size(); i++) {
+                        if (indexList.get(i) == s.index) return indexedList.get(i);
+                    }
+                    TargetNode at = new TargetNode(null, depth);
+                    indexList.add(s.index);
+                    indexedList.add(at);
+                    return at;
+                default:
+                    for (TargetNode c : childList) {
+                        if (c.key.equals(s.key)) return c;
+                    }
+                    TargetNode next = new TargetNode(s.key, depth);
+                    childList.add(next);
+                    return next;
+            }
+        }
+
+        boolean isArray() {
+            return element != null || indexed.length > 0;
+        }
+
+        // returns the deepest wildcard nesting below this node
+        int freeze() {
+            children = childList.toArray(new TargetNode[0]);
+            indexed = indexedList.toArray(new TargetNode[0]);
+            indexes = new int[indexList.size()];
+            for (int i = 0; i < indexes.length; i++) {
+                indexes[i] = indexList.get(i);
+                listSize = Math.max(listSize, indexes[i] + 1);
+            }
+            // enough buckets that a full node never rehashes at the default load factor
+            capacity = (int) (children.length / 0.75f) + 1;
+            int max = depth;
+            for (TargetNode c : children) max = Math.max(max, c.freeze());
+            for (TargetNode c : indexed) max = Math.max(max, c.freeze());
+            if (element != null) {
+                max = Math.max(max, element.freeze());
+                List<Integer> slots = new ArrayList<>();
+                element.collectSlots(slots);
+                elementSlots = slots.stream().mapToInt(Integer::intValue).toArray();
+            }
+            return max;
+        }
+
+        private void collectSlots(List<Integer> out) {
+            if (slot >= 0) out.add(slot);
+            for (TargetNode c : childList) c.collectSlots(out);
+            for (TargetNode c : indexedList) c.collectSlots(out);
+            if (element != null) element.collectSlots(out);
+        }
+    }
+
+    /**
+     * One walk of a record along the source trie. Every [*] level gets a single per-element sink, allocated on
+     * first use and reused for all elements at that level (only the entries of the steps below it are read back).
+     */
+    private final class SourceWalk {
+        private final boolean[] only;
+        private final Object[][] elementSinks = new Object[sourceDepth][];
+
+        SourceWalk(boolean[] only) {
+            this.only = only;
+        }
+
+        // depth: number of [*] levels above node
+        void visit(SourceNode node, Object value, Object[] sink, int depth) {
+            for (int s : node.steps) sink[s] = value;
+            if (node.children.length > 0) visitChildren(node, value, sink, depth);
+        }
+
+        @SuppressWarnings("unchecked")
+        void visitChildren(SourceNode node, Object value, Object[] sink, int depth) {
+            for (SourceNode child : node.children) {
+                if (only != null && !anyOf(child.stepsBelow, only)) continue;
+                Seg seg = child.seg;
+                if (seg.kind == Seg.KEY) {
+                    if (!(value instanceof Map)) continue;
+                    Object v = ((Map<String, Object>) value).get(seg.key);
+                    if (v != null) visit(child, v, sink, depth);
+                } else if (value instanceof List) {
+                    List<Object> list = (List<Object>) value;
+                    if (seg.kind == Seg.WILDCARD) {
+                        spread(child, list, sink, depth);
+                    } else if (seg.index < list.size()) {
+                        Object v = list.get(seg.index);
+                        if (v != null) visit(child, v, sink, depth);
+                    }
+                }
+            }
+        }
+
+        // walk the [*] subtree once per element, collecting one column of per-element values for each step below
+        @SuppressWarnings("unchecked")
+        private void spread(SourceNode node, List<Object> list, Object[] sink, int depth) {
+            int[] below = node.stepsBelow;
+            List<Object>[] columns = new List[below.length];
+            for (int j = 0; j < below.length; j++) columns[j] = new ArrayList<>(list.size());
+            Object[] elementSink = elementSinks[depth];
+            if (elementSink == null) elementSink = elementSinks[depth] = new Object[steps.length];
+            for (Object element : list) {
+                for (int s : below) elementSink[s] = null;
+                if (element != null) visit(node, element, elementSink, depth + 1);
+                for (int j = 0; j < below.length; j++) columns[j].add(elementSink[below[j]]);
+            }
+            for (int j = 0; j < below.length; j++) sink[below[j]] = new Spread(columns[j]);
+        }
+    }
+
+    /**
+     * Per-record output buffer: one value per target leaf plus the index of the mapping that wrote it last,
+     * which reproduces the overwrite order of applying the mappings one by one.
+     */
+    final class Target {
+        private final Object[] values = new Object[slotCount];
+        private final int[] seq = new int[slotCount];
+        // element index currently being built at each [*] level
+        private final int[] position = new int[maxDepth];
+
+        void set(int slot, Object value, int mappingIndex) {
+            values[slot] = value;
+            seq[slot] = mappingIndex + 1;
+        }
+
+        Map<String, Object> build() {
+            Map<String, Object> result = buildChildren(root, 0);
+            return result != null ? result : new LinkedHashMap<>();
+        }
+
+        private Map<String, Object> buildChildren(TargetNode node, int minSeq) {
+            Map<String, Object> map = null;
+            for (TargetNode child : node.children) {
+                Object v = buildNode(child, minSeq);
+                if (v == ABSENT) continue;
+                if (map == null) map = new LinkedHashMap<>(node.capacity);
+                map.put(child.key, v);
+            }
+            return map;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Object buildNode(TargetNode node, int minSeq) {
+            int leafSeq = node.slot >= 0 && seq[node.slot] > minSeq ? seq[node.slot] : 0;
+            Object leaf = leafSeq > 0 ? leafValue(node) : ABSENT;
+            if (node.children.length == 0 && !node.isArray()) return leaf;
+            // values written below this node before the node itself was overwritten are lost, as before
+            int childMin = Math.max(minSeq, leafSeq);
+            Object nested = node.isArray() ? buildList(node, childMin) : buildChildren(node, childMin);
+            if (nested == null) return leaf;
+            if (leaf instanceof Map && nested instanceof Map) {
+                // fields written into a copied object are merged into a copy, never into the source data
+                Map<String, Object> merged = new LinkedHashMap<>((Map<String, Object>) leaf);
+                merged.putAll((Map<String, Object>) nested);
+                return merged;
+            }
+            return nested;
+        }
+
+        private List<Object> buildList(TargetNode node, int minSeq) {
+            List<Object> list = null;
+            if (node.element != null) {
+                int level = node.element.depth - 1;
+                int n = elementCount(node, level, minSeq);
+                if (n > 0) {
+                    list = new ArrayList<>(Math.max(n, node.listSize));
+                    for (int i = 0; i < n; i++) {
+                        position[level] = i;
+                        Object v = buildNode(node.element, minSeq);
+                        list.add(v == ABSENT ? null : v);
+                    }
+                }
+            }
+            for (int i = 0; i < node.indexed.length; i++) {
+                Object v = buildNode(node.indexed[i], minSeq);
+                if (v == ABSENT) continue;
+                if (list == null) list = new ArrayList<>(node.listSize);
+                while (list.size() <= node.indexes[i]) list.add(null);
+                list.set(node.indexes[i], v);
+            }
+            return list;
+        }
+
+        // array length at this [*] level: the longest spread among the values below it, 1 if only plain values
+        private int elementCount(TargetNode node, int level, int minSeq) {
+            int n = 0;
+            boolean any = false;
+            for (int slot : node.elementSlots) {
+                if (seq[slot] <= minSeq) continue;
+                Object v = project(values[slot], level);
+                if (v instanceof Spread) {
+                    n = Math.max(n, ((Spread) v).items.size());
+                } else if (v != null) {
+                    any = true;
+                }
+            }
+            return n > 0 ? n : any ? 1 : 0;
+        }
+
+        private Object leafValue(TargetNode node) {
+            Object v = project(values[node.slot], node.depth);
+            // source had more [*] levels than the target: keep the remaining levels as plain arrays
+            if (v instanceof Spread) return toList(v);
+            return v == null ? ABSENT : v;
+        }
+
+        // select the current element at each of the first `levels` [*] levels; plain values are repeated
+        private Object project(Object v, int levels) {
+            for (int l = 0; l < levels && v instanceof Spread; l++) {
+                List<Object> items = ((Spread) v).items;
+                v = position[l] < items.size() ? items.get(position[l]) : null;
+            }
+            return v;
+        }
+
+        private Object toList(Object v) {
+            if (!(v instanceof Spread)) return v;
+            List<Object> items = ((Spread) v).items;
+            List<Object> out = new ArrayList<>(items.size());
+            for (Object item : items) out.add(toList(item));
+            return out;
+        }
+    }
+}
@@ -2,58 +2,138 @@ package com.example.mapping_service.service;
 
 import com.example.mapping_service.model.FieldMapping;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.text.ParsePosition;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 @Service
 public class MappingService {
 
+	private static final Logger logger = LoggerFactory.getLogger(MappingService.class);
+	private static final DateTimeFormatter DISPLAY_DATE = DateTimeFormatter.ofPattern("dd/MM/uuuu");
+
 	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final SampledLogger failureLog = new SampledLogger(logger, 10, TimeUnit.SECONDS);
 
 	/**
 	 * Apply a list of field mappings to the provided source data and return a transformed map.
 	 */
 	public Map<String, Object> applyMappings(Map<String, Object> sourceData, List<FieldMapping> mappings) {
-		Map<String, Object> result = new HashMap<>();
+		return applyMappings(sourceData, mappings, null);
+	}
 
+	/**
+	 * Same as {@link #applyMappings(Map, List)}, reporting mappings that could not be applied to {@code errors}.
+	 */
+	public Map<String, Object> applyMappings(Map<String, Object> sourceData, List<FieldMapping> mappings, TransformErrors errors) {
 		if (mappings == null || mappings.isEmpty() || sourceData == null) {
-			return result;
+			return new LinkedHashMap<>();
 		}
+		return apply(compile(mappings), sourceData, errors);
+	}
+
+	/**
+	 * Compile mappings once so they can be applied to many records (bulk jobs, batches).
+	 */
+	public MappingPlan compile(List<FieldMapping> mappings) {
+		return MappingPlan.compile(mappings);
+	}
+
+	/**
+	 * Apply a compiled plan to one record.
+	 */
+	public Map<String, Object> apply(MappingPlan plan, Map<String, Object> sourceData) {
+		return apply(plan, sourceData, null);
+	}
 
-		for (FieldMapping fm : mappings) {
+	/**
+	 * Apply a compiled plan to one record. A value the transformation rejects is reported to {@code errors}
+	 * (which may be null) and copied through unchanged, as before; nothing is thrown or logged per value.
+	 */
+	public Map<String, Object> apply(MappingPlan plan, Map<String, Object> sourceData, TransformErrors errors) {
+		return applyOnly(plan, sourceData, null, errors);
+	}
+
+	/**
+	 * Apply only the steps flagged in {@code only} (all of them when null): the output holds just what those
+	 * mappings write. Used by delta transforms.
+	 */
+	Map<String, Object> applyOnly(MappingPlan plan, Map<String, Object> sourceData, boolean[] only, TransformErrors errors) {
+		if (plan.isEmpty() || sourceData == null) {
+			return new LinkedHashMap<>();
+		}
+		MappingPlan.Target target = plan.newTarget();
+		MappingPlan.Step[] steps = plan.steps();
+		// one depth-first walk over the record serves every mapping
+		Object[] values = plan.readSources(sourceData, only);
+
+		for (int k = 0; k < steps.length; k++) {
+			if (only != null && !only[k]) continue;
+			MappingPlan.Step step = steps[k];
 			try {
-				Object raw = getValueByPath(sourceData, fm.getSourcePath());
+				Object raw = values[k];
 				if (raw == null) continue;
 
-				Object transformed = applyTransformation(raw, fm.getTransformationType(), fm.getTargetPath());
-
-				// If split_name and targetPath refers to a parent (not ending with firstName/lastName),
-				// apply both fields under that target path.
-				if ("split_name".equalsIgnoreCase(fm.getTransformationType()) &&
-						!(fm.getTargetPath().endsWith("firstName") || fm.getTargetPath().endsWith("lastName"))) {
-					// transformed expected to be a Map with firstName/lastName
-					if (transformed instanceof Map) {
-						@SuppressWarnings("unchecked")
-						Map<String, Object> nameParts = (Map<String, Object>) transformed;
-						for (Map.Entry<String, Object> e : nameParts.entrySet()) {
-							setValueByPath(result, fm.getTargetPath() + "." + e.getKey(), e.getValue());
-						}
+				if (step.splitToParent) {
+					// split_name onto a parent path: fill both name fields under it
+					if (step.sourceWildcard) {
+						target.set(step.firstNameSlot, forEach(raw, v -> namePart(v, 1, step, errors)), step.index);
+						target.set(step.lastNameSlot, forEach(raw, v -> namePart(v, 0, null, null)), step.index);
+					} else if (raw instanceof String) {
+						String[] parts = splitNameParts((String) raw);
+						target.set(step.firstNameSlot, parts[1], step.index);
+						target.set(step.lastNameSlot, parts[0], step.index);
+					} else {
+						report(errors, step, Failure.NOT_A_STRING, raw);
 					}
+				} else if (step.sourceWildcard) {
+					// array source: transform every element in one pass
+					target.set(step.slot, forEach(raw, v -> transform(v, step, errors)), step.index);
 				} else {
-					setValueByPath(result, fm.getTargetPath(), transformed);
+					target.set(step.slot, transform(raw, step, errors), step.index);
 				}
-			} catch (Exception e) {
-				// For POC, swallow and continue; in production log/propagate as needed
-				e.printStackTrace();
+			} catch (RuntimeException e) {
+				// a bug, not dirty data: keep going with the other mappings
+				report(errors, step, TransformErrors.TRANSFORM_FAILED, e);
+				failureLog.warn("Mapping {} failed: {}", step.mapping.getSourcePath(), e.toString());
 			}
 		}
 
-		return result;
+		return target.build();
+	}
+
+	private Object transform(Object raw, MappingPlan.Step step, TransformErrors errors) {
+		Object out = applyTransformation(raw, step.transformationType, step.mapping.getTargetPath());
+		if (out instanceof Failure) {
+			report(errors, step, ((Failure) out).code, raw);
+			return raw;
+		}
+		return out;
 	}
 
+	private Object namePart(Object v, int part, MappingPlan.Step step, TransformErrors errors) {
+		if (v instanceof String) return splitNameParts((String) v)[part];
+		// both halves see the same element; only one of them reports it
+		if (step != null) report(errors, step, Failure.NOT_A_STRING.code, v);
+		return null;
+	}
+
+	private static void report(TransformErrors errors, MappingPlan.Step step, Failure failure, Object value) {
+		report(errors, step, failure.code, value);
+	}
+
+	private static void report(TransformErrors errors, MappingPlan.Step step, String code, Object value) {
+		if (errors != null) errors.add(step, code, value);
+	}
+
+	// Returns the transformed value or a Failure; transformations never throw on bad input
 	private Object applyTransformation(Object raw, String transformationType, String targetPath) {
 		if (transformationType == null || transformationType.isEmpty() || "none".equalsIgnoreCase(transformationType)) {
 			return raw;
@@ -66,47 +146,75 @@ public class MappingService {
 				if (raw instanceof String) {
 					return convertDateFormat((String) raw);
 				}
-				return raw;
+				return Failure.NOT_A_STRING;
 			case "split_name":
 				if (raw instanceof String) {
 					return splitName((String) raw, targetPath);
 				}
-				return raw;
+				return Failure.NOT_A_STRING;
 			case "phone_format":
 				if (raw instanceof String) {
 					return convertPhone((String) raw);
 				}
-				return raw;
+				return Failure.NOT_A_STRING;
 			default:
 				// unknown transformation, return raw
 				return raw;
 		}
 	}
 
-	private String convertDateFormat(String input) {
-		// Try yyyy-MM-dd -> dd/MM/yyyy
-		try {
-			SimpleDateFormat src = new SimpleDateFormat("yyyy-MM-dd");
-			SimpleDateFormat dst = new SimpleDateFormat("dd/MM/yyyy");
-			Date d = src.parse(input);
-			return dst.format(d);
-		} catch (ParseException ignored) {
+	// yyyy-MM-dd (optionally followed by a time part) -> dd/MM/yyyy
+	private Object convertDateFormat(String input) {
+		int n = input.length();
+		int i = 0;
+		int year = 0, month = 0, day = 0;
+		int digits = 0;
+		while (i < n && digits < 4 && isDigit(input.charAt(i))) { year = year * 10 + (input.charAt(i++) - '0'); digits++; }
+		if (digits == 0 || i >= n || input.charAt(i++) != '-') return alreadyFormatted(input);
+		digits = 0;
+		while (i < n && digits < 2 && isDigit(input.charAt(i))) { month = month * 10 + (input.charAt(i++) - '0'); digits++; }
+		if (digits == 0 || i >= n || input.charAt(i++) != '-') return alreadyFormatted(input);
+		digits = 0;
+		while (i < n && digits < 2 && isDigit(input.charAt(i))) { day = day * 10 + (input.charAt(i++) - '0'); digits++; }
+		if (digits == 0 || year == 0 || month < 1 || month > 12 || day < 1 || day > YearMonth.of(year, month).lengthOfMonth()) {
+			return alreadyFormatted(input);
 		}
 
-		// If input already in dd/MM/yyyy, return as-is
-		return input;
+		StringBuilder sb = new StringBuilder(10);
+		if (day < 10) sb.append('0');
+		sb.append(day).append('/');
+		if (month < 10) sb.append('0');
+		sb.append(month).append('/');
+		for (int y = year; y < 1000; y *= 10) sb.append('0');
+		return sb.append(year).toString();
+	}
+
+	// If input already in dd/MM/yyyy, return as-is
+	private Object alreadyFormatted(String input) {
+		ParsePosition pos = new ParsePosition(0);
+		DISPLAY_DATE.parseUnresolved(input, pos);
+		return pos.getErrorIndex() < 0 && pos.getIndex() == input.length() ? input : Failure.INVALID_DATE;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
 	}
 
 	private Map<String, Object> splitName(String input, String targetPath) {
+		String[] parts = splitNameParts(input);
+		Map<String, Object> m = new LinkedHashMap<>(3);
+		m.put("firstName", parts[1]);
+		m.put("lastName", parts[0]);
+		return m;
+	}
+
+	// {last, first}
+	private String[] splitNameParts(String input) {
 		// Basic split on whitespace. For Hungarian names like "Nagy János" assume Last First
 		String[] parts = input.trim().split("\\s+", 2);
 		String last = parts.length > 0 ? parts[0] : "";
 		String first = parts.length > 1 ? parts[1] : "";
-
-		Map<String, Object> m = new HashMap<>();
-		m.put("firstName", first);
-		m.put("lastName", last);
-		return m;
+		return new String[]{last, first};
 	}
 
 	private String convertPhone(String input) {
@@ -132,39 +240,26 @@ public class MappingService {
 		return s;
 	}
 
-	@SuppressWarnings("unchecked")
-	private Object getValueByPath(Map<String, Object> data, String path) {
-		if (data == null || path == null || path.isEmpty()) return null;
-		String[] parts = path.split("\\.");
-		Object current = data;
-		for (String p : parts) {
-			if (!(current instanceof Map)) return null;
-			Map<String, Object> m = (Map<String, Object>) current;
-			if (!m.containsKey(p)) return null;
-			current = m.get(p);
+	// Apply fn to every element value of a [*] read, keeping element positions (null stays null)
+	private Object forEach(Object value, Function<Object, Object> fn) {
+		if (value instanceof MappingPlan.Spread) {
+			List<Object> items = ((MappingPlan.Spread) value).items;
+			List<Object> out = new ArrayList<>(items.size());
+			for (Object item : items) out.add(forEach(item, fn));
+			return new MappingPlan.Spread(out);
 		}
-		return current;
-	}
-
-	@SuppressWarnings("unchecked")
-	private void setValueByPath(Map<String, Object> data, String path, Object value) {
-		if (data == null || path == null || path.isEmpty()) return;
-		String[] parts = path.split("\\.");
-		Map<String, Object> current = data;
-		for (int i = 0; i < parts.length; i++) {
-			String p = parts[i];
-			if (i == parts.length - 1) {
-				current.put(p, value);
-				return;
-			}
-			Object next = current.get(p);
-			if (!(next instanceof Map)) {
-				Map<String, Object> nm = new HashMap<>();
-				current.put(p, nm);
-				current = nm;
-			} else {
-				current = (Map<String, Object>) next;
-			}
+		return value == null ? null : fn.apply(value);
+	}
+
+	// Preallocated result codes for values a transformation rejects (no exception, no stack trace)
+	private static final class Failure {
+		static final Failure INVALID_DATE = new Failure(TransformErrors.INVALID_DATE);
+		static final Failure NOT_A_STRING = new Failure(TransformErrors.NOT_A_STRING);
+
+		final String code;
+
+		private Failure(String code) {
+			this.code = code;
 		}
 	}
 }
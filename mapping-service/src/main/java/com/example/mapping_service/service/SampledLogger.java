@@ -0,0 +1,38 @@
+package com.example.mapping_service.service;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs at most one warning per interval and reports how many were dropped in between. Meant for hot loops over
+ * partner data where the same failure can repeat millions of times; never logs stack traces.
+ */
+final class SampledLogger {
+
+	private final Logger logger;
+	private final long intervalNanos;
+	private final AtomicLong nextAllowed = new AtomicLong(Long.MIN_VALUE);
+	private final AtomicLong suppressed = new AtomicLong();
+
+	SampledLogger(Logger logger, long interval, TimeUnit unit) {
+		this.logger = logger;
+		this.intervalNanos = unit.toNanos(interval);
+	}
+
+	void warn(String format, Object arg1, Object arg2) {
+		long now = System.nanoTime();
+		long next = nextAllowed.get();
+		if ((next != Long.MIN_VALUE && now - next < 0) || !nextAllowed.compareAndSet(next, now + intervalNanos)) {
+			suppressed.incrementAndGet();
+			return;
+		}
+		long dropped = suppressed.getAndSet(0);
+		if (dropped > 0) {
+			logger.warn(format + " ({} similar warnings suppressed)", arg1, arg2, dropped);
+		} else {
+			logger.warn(format, arg1, arg2);
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package com.example.mapping_service.service;
+
+import com.example.mapping_service.model.MappingResponse;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Simple in-memory templates store for the POC. Templates are addressed by their index in the list.
+ */
+@Service
+public class TemplateService {
+
+    private final List<MappingResponse> templates = Collections.synchronizedList(new ArrayList<>());
+    // templates never change once stored, so their compiled plans can be kept
+    private final Map<Integer, MappingPlan> plans = new ConcurrentHashMap<>();
+
+    public void add(MappingResponse template) {
+        templates.add(template);
+    }
+
+    public List<MappingResponse> list() {
+        synchronized (templates) {
+            return new ArrayList<>(templates);
+        }
+    }
+
+    public MappingResponse get(int id) {
+        synchronized (templates) {
+            return id >= 0 && id < templates.size() ? templates.get(id) : null;
+        }
+    }
+
+    /**
+     * Compiled plan for a template, compiled on first use. Null for unknown ids.
+     */
+    public MappingPlan plan(int id) {
+        MappingResponse template = get(id);
+        if (template == null) return null;
+        return plans.computeIfAbsent(id, k -> MappingPlan.compile(template.getMappings()));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.mapping_service.service;
+
+import com.example.mapping_service.model.TransformError;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collects mapping failures for one record (or one chunk of a job). Every failure is counted, but only the first
+ * {@code maxErrors} are kept and only the first {@code maxMessages} of those get a message, so a file full of dirty
+ * values costs a counter increment per failure rather than string formatting. Not thread-safe.
+ */
+public final class TransformErrors {
+
+	public static final String INVALID_DATE = "INVALID_DATE";
+	public static final String NOT_A_STRING = "NOT_A_STRING";
+	public static final String TRANSFORM_FAILED = "TRANSFORM_FAILED";
+	// delta transform: the patch alone does not carry enough of the source to recompute this mapping
+	public static final String DELTA_UNRESOLVED = "DELTA_UNRESOLVED";
+
+	private static final int MAX_VALUE_CHARS = 64;
+
+	private final int maxErrors;
+	private final int maxMessages;
+	private List<TransformError> errors;
+	private int count;
+	private int messages;
+
+	public TransformErrors(int maxErrors, int maxMessages) {
+		this.maxErrors = maxErrors;
+		this.maxMessages = maxMessages;
+	}
+
+	/**
+	 * A collector that only counts (bulk jobs).
+	 */
+	public static TransformErrors counting() {
+		return new TransformErrors(0, 0);
+	}
+
+	void add(MappingPlan.Step step, String code, Object value) {
+		count++;
+		if (errors == null) {
+			if (maxErrors == 0) return;
+			errors = new ArrayList<>();
+		}
+		if (errors.size() >= maxErrors) return;
+		String message = messages < maxMessages ? describe(code, value) : null;
+		if (message != null) messages++;
+		errors.add(new TransformError(step.index, step.mapping.getSourcePath(), code, message));
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public List<TransformError> getErrors() {
+		return errors == null ? Collections.emptyList() : errors;
+	}
+
+	public void reset() {
+		count = 0;
+		messages = 0;
+		if (errors != null) errors.clear();
+	}
+
+	private static String describe(String code, Object value) {
+		switch (code) {
+			case INVALID_DATE:
+				return "not a yyyy-MM-dd or dd/MM/yyyy date: " + abbreviate(value);
+			case DELTA_UNRESOLVED:
+				return "send previousSource to recompute " + value;
+			case NOT_A_STRING:
+				return "expected a string, got " + (value == null ? "null" : value.getClass().getSimpleName());
+			default:
+				return abbreviate(value);
+		}
+	}
+
+	private static String abbreviate(Object value) {
+		String s = String.valueOf(value);
+		return s.length() <= MAX_VALUE_CHARS ? s : s.substring(0, MAX_VALUE_CHARS) + "...";
+	}
+}
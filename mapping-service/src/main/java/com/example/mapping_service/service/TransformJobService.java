@@ -0,0 +1,863 @@
+package com.example.mapping_service.service;
+
+import com.example.mapping_service.model.FieldMapping;
+import com.example.mapping_service.model.JobRequest;
+import com.example.mapping_service.model.JobStatus;
+import com.example.mapping_service.model.MappingResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous bulk transform jobs over local NDJSON files.
+ *
+ * Jobs run on a bounded worker pool and process the input in chunks. After every chunk the output is flushed
+ * to disk and a checkpoint (input/output byte offsets and counters) is written next to the output file as
+ * {@code <output>.checkpoint}. Submitting a job for the same input and output again resumes from that checkpoint,
+ * so a job interrupted by a restart or cancellation does not start over. The checkpoint carries a fingerprint of
+ * the mappings, chunk size, parallelism and input modification time; if the resubmitted job differs in any of
+ * them, the checkpoint, output and part files are deleted and the job starts from the beginning.
+ *
+ * Input and output paths are resolved against the jobs root directory ({@code mapping.jobs.root}) and must stay
+ * inside it. Finished jobs are forgotten after {@code mapping.jobs.retention-minutes}; their files are kept.
+ *
+ * With parallelism > 1 the input is memory-mapped and split into segments that are transformed concurrently
+ * (see {@link MappedNdjsonReader}); the checkpoint then tracks completed segments and, for the others, the byte
+ * offsets reached after their last chunk, so every segment resumes from its own last chunk.
+ */
+@Service
+// the checkpoint file is Jackson-bound too (native image)
+@RegisterReflectionForBinding({TransformJobService.Checkpoint.class, TransformJobService.SegmentProgress.class})
+public class TransformJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransformJobService.class);
+
+    private static final int DEFAULT_CHUNK_SIZE = 10_000;
+    private static final TypeReference<Map<String, Object>> RECORD_TYPE = new TypeReference<>() {};
+
+    private final MappingService mappingService;
+    private final TemplateService templateService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ThreadPoolExecutor workers;
+    private final ExecutorService segmentWorkers;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    // directory all job inputs and outputs must be in; created, and its real path taken, on the first submit
+    private final Path configuredRoot;
+    private volatile Path root;
+    private final long retentionNanos;
+    private final int maxLineBytes;
+
+    public TransformJobService(MappingService mappingService,
+                               TemplateService templateService,
+                               @Value("${mapping.jobs.workers:2}") int workerCount,
+                               @Value("${mapping.jobs.queue-capacity:16}") int queueCapacity,
+                               @Value("${mapping.jobs.segment-threads:0}") int segmentThreads,
+                               @Value("${mapping.jobs.root:jobs}") String root,
+                               @Value("${mapping.jobs.retention-minutes:60}") long retentionMinutes,
+                               @Value("${mapping.jobs.max-line-bytes:16777216}") int maxLineBytes) {
+        this.mappingService = mappingService;
+        this.templateService = templateService;
+        this.configuredRoot = Paths.get(root).toAbsolutePath().normalize();
+        this.retentionNanos = TimeUnit.MINUTES.toNanos(retentionMinutes);
+        this.maxLineBytes = maxLineBytes;
+        AtomicInteger threadIds = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "transform-job-" + threadIds.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        // separate pool for segment tasks so job threads waiting on their segments cannot starve them
+        int segmentCount = segmentThreads > 0 ? segmentThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger segmentIds = new AtomicInteger();
+        this.segmentWorkers = Executors.newFixedThreadPool(segmentCount, r -> {
+            Thread t = new Thread(r, "transform-segment-" + segmentIds.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Queue a new job. Throws IllegalArgumentException for invalid requests (including paths outside the jobs
+     * root and an output that would overwrite the input), IllegalStateException if this job and another active
+     * one would overwrite each other's input or output, and RejectedExecutionException if the job queue is full.
+     */
+    public JobStatus submit(JobRequest request) {
+        evictExpired();
+        if (request.getInputPath() == null || request.getInputPath().isEmpty()) {
+            throw new IllegalArgumentException("inputPath is required");
+        }
+        Path input = resolve(request.getInputPath());
+        if (!Files.isRegularFile(input)) {
+            throw new IllegalArgumentException("input file not found: " + request.getInputPath());
+        }
+        Path output = request.getOutputPath() == null || request.getOutputPath().isEmpty()
+                ? Paths.get(input + ".out.ndjson")
+                : resolve(request.getOutputPath());
+        if (overwrites(output, input)) {
+            throw new IllegalArgumentException("outputPath would overwrite the input");
+        }
+        if (output.getFileName().toString().endsWith(".checkpoint")) {
+            throw new IllegalArgumentException("outputPath must not be a checkpoint file");
+        }
+
+        List<FieldMapping> mappings = request.getMappings();
+        if (request.getTemplateId() != null) {
+            MappingResponse template = templateService.get(request.getTemplateId());
+            if (template == null) {
+                throw new IllegalArgumentException("unknown template: " + request.getTemplateId());
+            }
+            mappings = template.getMappings();
+        }
+        if (mappings == null || mappings.isEmpty()) {
+            throw new IllegalArgumentException("either mappings or templateId is required");
+        }
+        for (FieldMapping mapping : mappings) {
+            if (mapping == null) {
+                throw new IllegalArgumentException("mappings must not contain null");
+            }
+        }
+        int chunkSize = request.getChunkSize() > 0 ? request.getChunkSize() : DEFAULT_CHUNK_SIZE;
+
+        int parallelism = Math.max(1, request.getParallelism());
+        boolean mergeOutput = request.getMergeOutput() == null || request.getMergeOutput();
+
+        List<FieldMapping> copy = List.copyOf(mappings);
+        Job job = new Job(UUID.randomUUID().toString(), input, output, mappingService.compile(copy), mappingsHash(copy),
+                chunkSize, parallelism, mergeOutput);
+        synchronized (jobs) {
+            for (Job other : jobs.values()) {
+                if (!other.isActive()) continue;
+                if (overwrites(other.output, output) || overwrites(output, other.output) || overwrites(other.output, input)) {
+                    throw new IllegalStateException("job " + other.id + " is already writing " + other.output);
+                }
+                if (overwrites(output, other.input)) {
+                    throw new IllegalStateException("job " + other.id + " is reading " + other.input);
+                }
+            }
+            jobs.put(job.id, job);
+        }
+        try {
+            workers.execute(job.runnable);
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw e;
+        }
+        return job.snapshot();
+    }
+
+    public JobStatus get(String id) {
+        evictExpired();
+        Job job = jobs.get(id);
+        return job == null ? null : job.snapshot();
+    }
+
+    public List<JobStatus> list() {
+        evictExpired();
+        List<JobStatus> out = new ArrayList<>();
+        for (Job job : jobs.values()) out.add(job.snapshot());
+        return out;
+    }
+
+    /**
+     * Request cancellation. The job stops at the next record boundary; its last checkpoint is kept
+     * so it can be resumed later. Returns null if the job does not exist.
+     */
+    public JobStatus cancel(String id) {
+        Job job = jobs.get(id);
+        if (job == null) return null;
+        job.cancelled = true;
+        if ("QUEUED".equals(job.state) && workers.remove(job.runnable)) {
+            job.state = "CANCELLED";
+            job.finishedNanos = System.nanoTime();
+        }
+        return job.snapshot();
+    }
+
+    // the output, its checkpoint and part files (all "<output>.*") are truncated or deleted by the job
+    private static boolean overwrites(Path output, Path file) {
+        return file.equals(output) || file.toString().startsWith(output + ".");
+    }
+
+    private Path root() {
+        Path r = root;
+        if (r == null) {
+            synchronized (this) {
+                r = root;
+                if (r == null) {
+                    try {
+                        root = r = Files.createDirectories(configuredRoot).toRealPath();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("cannot create jobs directory " + configuredRoot, e);
+                    }
+                }
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Resolve a client path against the jobs root. Relative paths are relative to the root; absolute ones and
+     * anything reached through "..", or through a symlink for existing files and directories, must stay inside it.
+     */
+    private Path resolve(String path) {
+        Path root = root();
+        Path resolved;
+        try {
+            resolved = root.resolve(path).normalize();
+            Path parent = resolved.getParent();
+            if (parent != null && Files.exists(parent)) {
+                resolved = parent.toRealPath().resolve(resolved.getFileName());
+            }
+            if (Files.exists(resolved)) {
+                resolved = resolved.toRealPath();
+            }
+        } catch (java.nio.file.InvalidPathException | IOException e) {
+            throw new IllegalArgumentException("invalid path: " + path);
+        }
+        if (!resolved.startsWith(root) || resolved.equals(root)) {
+            throw new IllegalArgumentException("path is outside the jobs directory: " + path);
+        }
+        return resolved;
+    }
+
+    // finished jobs are only kept for the retention period; their output and checkpoint files stay on disk
+    private void evictExpired() {
+        long now = System.nanoTime();
+        jobs.values().removeIf(job -> !job.isActive() && job.finishedNanos != 0 && now - job.finishedNanos > retentionNanos);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Job job : jobs.values()) job.cancelled = true;
+        workers.shutdown();
+        segmentWorkers.shutdown();
+    }
+
+    private void run(Job job) {
+        if (job.cancelled) {
+            job.state = "CANCELLED";
+            job.finishedNanos = System.nanoTime();
+            return;
+        }
+        job.state = "RUNNING";
+        Path checkpointPath = Paths.get(job.output + ".checkpoint");
+        try (FileChannel in = FileChannel.open(job.input, StandardOpenOption.READ)) {
+            job.totalBytes = in.size();
+            job.fingerprint = job.fingerprint(Files.getLastModifiedTime(job.input).toMillis());
+            Checkpoint cp = readCheckpoint(checkpointPath, job);
+            if (job.parallelism > 1) {
+                runSegmented(job, in, cp, checkpointPath);
+            } else {
+                runSequential(job, in, cp, checkpointPath);
+            }
+
+            if (job.cancelled) {
+                job.state = "CANCELLED";
+                logger.info("Job {} cancelled after {} records; checkpoint kept at {}", job.id, job.recordsProcessed, checkpointPath);
+            } else {
+                Files.deleteIfExists(checkpointPath);
+                job.bytesProcessed = job.totalBytes;
+                job.state = "COMPLETED";
+                logger.info("Job {} completed: {} records ({} failed) -> {}", job.id, job.recordsProcessed, job.recordsFailed, job.output);
+            }
+        } catch (Exception e) {
+            job.state = "FAILED";
+            job.error = e.getMessage();
+            logger.warn("Job {} failed: {}", job.id, e.toString());
+        } finally {
+            job.finishedNanos = System.nanoTime();
+        }
+    }
+
+    // Single-threaded: stream the input in chunks, appending to one output file.
+    private void runSequential(Job job, FileChannel in, Checkpoint cp, Path checkpointPath) throws IOException {
+        if (cp != null && cp.segments != 0) {
+            logger.warn("Ignoring checkpoint {}: it was written by a segmented run", checkpointPath);
+            cp = null;
+        }
+        try (FileChannel out = FileChannel.open(job.output, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long inputOffset = 0;
+            long outputOffset = 0;
+            if (cp != null) {
+                inputOffset = cp.inputOffset;
+                outputOffset = cp.outputOffset;
+                job.recordsProcessed = cp.records;
+                job.recordsFailed = cp.failed;
+                job.chunksCompleted = cp.chunks;
+                job.resumed = true;
+                logger.info("Job {} resuming {} at byte {} ({} records done)", job.id, job.input, inputOffset, cp.records);
+            }
+            // anything written after the last checkpoint is discarded and recomputed
+            out.truncate(outputOffset);
+            out.position(outputOffset);
+            in.position(inputOffset);
+            job.bytesProcessed = inputOffset;
+            job.startRun();
+
+            LineReader reader = new LineReader(Channels.newInputStream(in), inputOffset, maxLineBytes);
+            OutputStream os = new BufferedOutputStream(Channels.newOutputStream(out), 1 << 16);
+
+            TransformErrors errors = TransformErrors.counting();
+            boolean eof = false;
+            while (!eof && !job.cancelled) {
+                long records = 0;
+                long failed = 0;
+                int lines = 0;
+                while (lines < job.chunkSize && !job.cancelled) {
+                    int len = reader.readLine();
+                    if (len == LineReader.TOO_LONG) {
+                        lines++;
+                        failed++;
+                        continue;
+                    }
+                    if (len < 0) {
+                        eof = true;
+                        break;
+                    }
+                    if (len == 0) continue;
+                    lines++;
+                    Map<String, Object> record;
+                    try {
+                        record = objectMapper.readValue(reader.line, 0, len, RECORD_TYPE);
+                    } catch (IOException e) {
+                        failed++;
+                        continue;
+                    }
+                    Map<String, Object> transformed = mappingService.apply(job.plan, record, errors);
+                    os.write(objectMapper.writeValueAsBytes(transformed));
+                    os.write('\n');
+                    records++;
+                }
+                if (lines == 0) break;
+
+                os.flush();
+                out.force(false);
+                job.recordsProcessed += records;
+                job.recordsFailed += failed;
+                job.fieldErrors += errors.getCount();
+                errors.reset();
+                job.chunksCompleted++;
+                job.bytesProcessed = reader.offset;
+                writeCheckpoint(checkpointPath, new Checkpoint(job.input.toString(), job.totalBytes, job.fingerprint,
+                        reader.offset, out.position(), job.recordsProcessed, job.recordsFailed, job.chunksCompleted));
+            }
+        }
+    }
+
+    /**
+     * Parallel: memory-map the input, split it into newline-aligned segments and transform each segment on its
+     * own thread into {@code <output>.part-NNNNN}. Every chunkSize lines a segment flushes its part file and
+     * records its input/output offsets in the checkpoint; completed segments are listed there too. At the end
+     * the parts are concatenated in order into the output (unless mergeOutput is false).
+     */
+    private void runSegmented(Job job, FileChannel in, Checkpoint cp, Path checkpointPath) throws Exception {
+        List<MappedNdjsonReader.Segment> segments = MappedNdjsonReader.split(in, job.parallelism);
+        job.segmentCount = segments.size();
+        SegmentCheckpoints checkpoints = new SegmentCheckpoints(job, checkpointPath, segments.size());
+        if (cp != null && cp.segments == segments.size() && cp.completedSegments != null) {
+            checkpoints.restore(cp);
+            job.recordsProcessed = cp.records;
+            job.recordsFailed = cp.failed;
+            job.chunksCompleted = cp.chunks;
+            job.resumed = true;
+            logger.info("Job {} resuming {}: {}/{} segments done, {} partially", job.id, job.input,
+                    checkpoints.done.size(), segments.size(), checkpoints.partial.size());
+        } else if (cp != null) {
+            logger.warn("Ignoring checkpoint {}: it was written with a different segmentation", checkpointPath);
+        }
+        long doneBytes = 0;
+        for (MappedNdjsonReader.Segment seg : segments) {
+            if (checkpoints.done.contains(seg.getIndex())) {
+                doneBytes += seg.length();
+            } else if (checkpoints.partial.containsKey(seg.getIndex())) {
+                doneBytes += checkpoints.partial.get(seg.getIndex()).offset;
+            }
+        }
+        job.bytesProcessed = doneBytes;
+        job.startRun();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (MappedNdjsonReader.Segment seg : segments) {
+            if (checkpoints.done.contains(seg.getIndex())) continue;
+            SegmentProgress resume = checkpoints.partial.get(seg.getIndex());
+            futures.add(segmentWorkers.submit(() -> {
+                transformSegment(job, in, seg, resume, checkpoints);
+                return null;
+            }));
+        }
+        Exception failure = null;
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                if (failure == null) failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                job.cancelled = true;
+            }
+        }
+        if (failure != null) throw failure;
+        if (job.cancelled) return;
+
+        if (job.mergeOutput) {
+            try (FileChannel out = FileChannel.open(job.output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (MappedNdjsonReader.Segment seg : segments) {
+                    try (FileChannel part = FileChannel.open(partPath(job, seg), StandardOpenOption.READ)) {
+                        long pos = 0;
+                        long size = part.size();
+                        while (pos < size) pos += part.transferTo(pos, size - pos, out);
+                    }
+                }
+                out.force(false);
+            }
+            // drop the checkpoint before the parts so an interrupted cleanup never resumes without them
+            Files.deleteIfExists(checkpointPath);
+            for (MappedNdjsonReader.Segment seg : segments) Files.deleteIfExists(partPath(job, seg));
+        }
+    }
+
+    // Transforms one segment, from the resume point if there is one, checkpointing after every chunk.
+    private void transformSegment(Job job, FileChannel in, MappedNdjsonReader.Segment seg, SegmentProgress resume,
+                                  SegmentCheckpoints checkpoints) throws IOException {
+        SegmentProgress current = new SegmentProgress(seg.getIndex());
+        try (FileChannel out = FileChannel.open(partPath(job, seg), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (resume != null && out.size() >= resume.outputOffset) {
+                current.offset = resume.offset;
+                current.outputOffset = resume.outputOffset;
+                current.records = resume.records;
+                current.failed = resume.failed;
+            } else if (resume != null) {
+                // the part file lost data the checkpoint counts: redo the segment
+                logger.warn("Job {} segment {}: part file shorter than its checkpoint, restarting the segment", job.id, seg.getIndex());
+                checkpoints.forget(resume);
+                job.addProgress(-resume.records, -resume.failed, 0, -resume.offset);
+            }
+            // anything written after the segment's last checkpoint is discarded and recomputed
+            out.truncate(current.outputOffset);
+            out.position(current.outputOffset);
+            OutputStream os = new BufferedOutputStream(Channels.newOutputStream(out), 1 << 16);
+            boolean finished = MappedNdjsonReader.read(in, seg, current.offset, job.chunkSize, maxLineBytes, objectMapper, new MappedNdjsonReader.RecordHandler() {
+                private final TransformErrors errors = TransformErrors.counting();
+                private long pendingRecords;
+                private long pendingFailed;
+
+                @Override
+                public void record(Map<String, Object> record) throws IOException {
+                    Map<String, Object> transformed = mappingService.apply(job.plan, record, errors);
+                    os.write(objectMapper.writeValueAsBytes(transformed));
+                    os.write('\n');
+                    current.records++;
+                    pendingRecords++;
+                }
+
+                @Override
+                public void malformed() {
+                    current.failed++;
+                    pendingFailed++;
+                }
+
+                @Override
+                public boolean cancelled() {
+                    return job.cancelled;
+                }
+
+                @Override
+                public void progress(long bytes) {
+                    job.addProgress(pendingRecords, pendingFailed, errors.getCount(), bytes);
+                    errors.reset();
+                    pendingRecords = 0;
+                    pendingFailed = 0;
+                }
+
+                @Override
+                public void chunk(long offset) throws IOException {
+                    os.flush();
+                    out.force(false);
+                    current.offset = offset;
+                    current.outputOffset = out.position();
+                    checkpoints.chunk(current);
+                }
+            });
+            os.flush();
+            out.force(false);
+            if (finished) checkpoints.complete(current);
+        }
+    }
+
+    /**
+     * Checkpoint state of a segmented run, shared by its segment threads: completed segments with their totals,
+     * and the last chunk offsets of the others.
+     */
+    private final class SegmentCheckpoints {
+        private final Job job;
+        private final Path path;
+        private final int segments;
+        final Set<Integer> done = new TreeSet<>();
+        final Map<Integer, SegmentProgress> partial = new TreeMap<>();
+        private long completedRecords;
+        private long completedFailed;
+        private long chunks;
+
+        SegmentCheckpoints(Job job, Path path, int segments) {
+            this.job = job;
+            this.path = path;
+            this.segments = segments;
+        }
+
+        void restore(Checkpoint cp) {
+            done.addAll(cp.completedSegments);
+            completedRecords = cp.records;
+            completedFailed = cp.failed;
+            chunks = cp.chunks;
+            if (cp.segmentProgress == null) return;
+            for (SegmentProgress p : cp.segmentProgress) {
+                if (done.contains(p.index)) continue;
+                partial.put(p.index, p);
+                completedRecords -= p.records;
+                completedFailed -= p.failed;
+            }
+        }
+
+        synchronized void forget(SegmentProgress resume) throws IOException {
+            partial.remove(resume.index);
+            write();
+        }
+
+        synchronized void chunk(SegmentProgress progress) throws IOException {
+            partial.put(progress.index, progress.copy());
+            chunks++;
+            job.chunksCompleted = chunks;
+            write();
+        }
+
+        synchronized void complete(SegmentProgress progress) throws IOException {
+            partial.remove(progress.index);
+            done.add(progress.index);
+            completedRecords += progress.records;
+            completedFailed += progress.failed;
+            chunks++;
+            job.chunksCompleted = chunks;
+            write();
+        }
+
+        private void write() throws IOException {
+            long records = completedRecords;
+            long failed = completedFailed;
+            for (SegmentProgress p : partial.values()) {
+                records += p.records;
+                failed += p.failed;
+            }
+            Checkpoint next = new Checkpoint(job.input.toString(), job.totalBytes, job.fingerprint, 0, 0, records, failed, chunks);
+            next.segments = segments;
+            next.completedSegments = new ArrayList<>(done);
+            next.segmentProgress = new ArrayList<>(partial.values());
+            writeCheckpoint(path, next);
+        }
+    }
+
+    private static Path partPath(Job job, MappedNdjsonReader.Segment seg) {
+        return Paths.get(String.format("%s.part-%05d", job.output, seg.getIndex()));
+    }
+
+    private Checkpoint readCheckpoint(Path path, Job job) throws IOException {
+        if (!Files.exists(path)) return null;
+        Checkpoint cp;
+        try {
+            cp = objectMapper.readValue(path.toFile(), Checkpoint.class);
+        } catch (IOException e) {
+            logger.warn("Discarding unreadable checkpoint {}: {}", path, e.getMessage());
+            discard(path, job);
+            return null;
+        }
+        if (!job.input.toString().equals(cp.inputPath) || cp.inputSize != job.totalBytes) {
+            logger.warn("Discarding checkpoint {}: it was written for a different input", path);
+            discard(path, job);
+            return null;
+        }
+        if (!job.fingerprint.equals(cp.fingerprint)) {
+            logger.warn("Discarding checkpoint {}: it was written with other mappings or chunking, or the input changed", path);
+            discard(path, job);
+            return null;
+        }
+        return cp;
+    }
+
+    // output written under another checkpoint must not be appended to: start over from no files at all
+    private static void discard(Path checkpointPath, Job job) throws IOException {
+        Files.deleteIfExists(checkpointPath);
+        Files.deleteIfExists(job.output);
+        String partPrefix = job.output.getFileName() + ".part-";
+        try (DirectoryStream<Path> parts = Files.newDirectoryStream(job.output.getParent(),
+                p -> p.getFileName().toString().startsWith(partPrefix))) {
+            for (Path part : parts) Files.deleteIfExists(part);
+        }
+    }
+
+    private String mappingsHash(List<FieldMapping> mappings) {
+        try {
+            return sha256(objectMapper.writeValueAsBytes(mappings));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("mappings cannot be serialized", e);
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // write-then-rename so a crash never leaves a half-written checkpoint behind
+    private void writeCheckpoint(Path path, Checkpoint cp) throws IOException {
+        Path tmp = Paths.get(path + ".tmp");
+        Files.write(tmp, objectMapper.writeValueAsBytes(cp));
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static final class Checkpoint {
+        public String inputPath;
+        public long inputSize;
+        // mappings, chunk size, parallelism and input mtime of the job that wrote it
+        public String fingerprint;
+        public long inputOffset;
+        public long outputOffset;
+        public long records;
+        public long failed;
+        public long chunks;
+        // segmented runs only: segment count, the indexes whose part files are complete and where the others
+        // stopped
+        public int segments;
+        public List<Integer> completedSegments;
+        public List<SegmentProgress> segmentProgress;
+
+        public Checkpoint() {}
+
+        Checkpoint(String inputPath, long inputSize, String fingerprint, long inputOffset, long outputOffset, long records,
+                   long failed, long chunks) {
+            this.inputPath = inputPath;
+            this.inputSize = inputSize;
+            this.fingerprint = fingerprint;
+            this.inputOffset = inputOffset;
+            this.outputOffset = outputOffset;
+            this.records = records;
+            this.failed = failed;
+            this.chunks = chunks;
+        }
+    }
+
+    /**
+     * Resume point of a segment: bytes consumed from the segment start, bytes written to its part file and the
+     * record counts up to there.
+     */
+    static final class SegmentProgress {
+        public int index;
+        public long offset;
+        public long outputOffset;
+        public long records;
+        public long failed;
+
+        public SegmentProgress() {}
+
+        SegmentProgress(int index) {
+            this.index = index;
+        }
+
+        SegmentProgress copy() {
+            SegmentProgress p = new SegmentProgress(index);
+            p.offset = offset;
+            p.outputOffset = outputOffset;
+            p.records = records;
+            p.failed = failed;
+            return p;
+        }
+    }
+
+    private final class Job {
+        final String id;
+        final Path input;
+        final Path output;
+        // compiled once, shared by every record and segment thread of the job
+        final MappingPlan plan;
+        final String mappingsHash;
+        final int chunkSize;
+        final int parallelism;
+        final boolean mergeOutput;
+        final Runnable runnable = () -> run(this);
+
+        volatile String state = "QUEUED";
+        volatile boolean cancelled;
+        volatile boolean resumed;
+        volatile String error;
+        // set when the run starts, see fingerprint(long)
+        volatile String fingerprint;
+        volatile long totalBytes;
+        volatile long bytesProcessed;
+        volatile long recordsProcessed;
+        volatile long recordsFailed;
+        // mapped values a transformation rejected in this run (not carried over on resume)
+        volatile long fieldErrors;
+        volatile long chunksCompleted;
+        volatile int segmentCount;
+        volatile long runStartOffset;
+        volatile long runStartRecords;
+        volatile long runStartNanos;
+        volatile long finishedNanos;
+
+        Job(String id, Path input, Path output, MappingPlan plan, String mappingsHash, int chunkSize, int parallelism,
+            boolean mergeOutput) {
+            this.id = id;
+            this.input = input;
+            this.output = output;
+            this.plan = plan;
+            this.mappingsHash = mappingsHash;
+            this.chunkSize = chunkSize;
+            this.parallelism = parallelism;
+            this.mergeOutput = mergeOutput;
+        }
+
+        // everything that decides which output bytes a checkpoint offset stands for
+        String fingerprint(long inputModifiedMillis) {
+            return sha256((mappingsHash + "/" + chunkSize + "/" + parallelism + "/" + inputModifiedMillis)
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+
+        void startRun() {
+            runStartOffset = bytesProcessed;
+            runStartRecords = recordsProcessed;
+            runStartNanos = System.nanoTime();
+        }
+
+        // segment threads report concurrently
+        synchronized void addProgress(long records, long failed, long fieldErrors, long bytes) {
+            recordsProcessed += records;
+            recordsFailed += failed;
+            this.fieldErrors += fieldErrors;
+            bytesProcessed += bytes;
+        }
+
+        boolean isActive() {
+            return "QUEUED".equals(state) || "RUNNING".equals(state);
+        }
+
+        JobStatus snapshot() {
+            JobStatus s = new JobStatus();
+            s.setId(id);
+            s.setState(state);
+            s.setInputPath(input.toString());
+            s.setOutputPath(output.toString());
+            s.setRecordsProcessed(recordsProcessed);
+            s.setRecordsFailed(recordsFailed);
+            s.setFieldErrors(fieldErrors);
+            s.setChunksCompleted(chunksCompleted);
+            s.setSegments(segmentCount);
+            s.setBytesProcessed(bytesProcessed);
+            s.setTotalBytes(totalBytes);
+            s.setResumed(resumed);
+            s.setError(error);
+            if (runStartNanos > 0) {
+                long end = finishedNanos > 0 ? finishedNanos : System.nanoTime();
+                double seconds = (end - runStartNanos) / 1e9;
+                if (seconds > 0) {
+                    s.setRecordsPerSecond((recordsProcessed - runStartRecords) / seconds);
+                    double bytesPerSecond = (bytesProcessed - runStartOffset) / seconds;
+                    if ("RUNNING".equals(state) && bytesPerSecond > 0) {
+                        s.setEtaSeconds((long) Math.ceil((totalBytes - bytesProcessed) / bytesPerSecond));
+                    }
+                }
+            }
+            return s;
+        }
+    }
+
+    /**
+     * Reads newline-delimited records into a reusable buffer while tracking the exact byte offset,
+     * which is what the checkpoint records. Lines longer than maxLineBytes are skipped, not buffered.
+     */
+    static final class LineReader {
+        static final int TOO_LONG = -2;
+
+        private final InputStream in;
+        private final int maxLineBytes;
+        private final byte[] buf = new byte[1 << 16];
+        private int pos;
+        private int limit;
+        byte[] line = new byte[1024];
+        long offset;
+
+        LineReader(InputStream in, long offset, int maxLineBytes) {
+            this.in = in;
+            this.offset = offset;
+            this.maxLineBytes = maxLineBytes;
+        }
+
+        /**
+         * Read the next line into {@link #line} (without the line terminator) and return its length, -1 at EOF, or
+         * {@link #TOO_LONG} after skipping a line of more than maxLineBytes bytes.
+         */
+        int readLine() throws IOException {
+            int len = 0;
+            boolean any = false;
+            boolean tooLong = false;
+            while (true) {
+                if (pos == limit) {
+                    limit = in.read(buf, 0, buf.length);
+                    pos = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        return tooLong ? TOO_LONG : any ? trimCr(len) : -1;
+                    }
+                }
+                any = true;
+                byte b = buf[pos++];
+                offset++;
+                if (b == '\n') return tooLong ? TOO_LONG : trimCr(len);
+                if (tooLong) continue;
+                if (len == maxLineBytes) {
+                    tooLong = true;
+                    continue;
+                }
+                if (len == line.length) line = Arrays.copyOf(line, (int) Math.min(len * 2L, maxLineBytes));
+                line[len++] = b;
+            }
+        }
+
+        private int trimCr(int len) {
+            return len > 0 && line[len - 1] == '\r' ? len - 1 : len;
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.example.mapping_service.service;
+
+import com.example.mapping_service.model.ValidationResult;
+import com.example.mapping_service.model.ValidationRule;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * In-process validation of transformed output.
+ *
+ * Rules are compiled once into a {@link CompiledRuleSet} (paths split, regexes precompiled) and can then be
+ * evaluated against any number of records. The Python validation-service can still be used instead by setting
+ * mapping.validation.backend=remote (or VALIDATION_BACKEND=remote) and mapping.validation.service-url (or
+ * VALIDATION_SERVICE_URL, e.g. http://validation-service:8000). It only knows its own rule set, so custom rules
+ * are rejected in that mode.
+ */
+@Service
+public class ValidationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ValidationService.class);
+
+    private static final DateTimeFormatter DAY_MONTH_YEAR = DateTimeFormatter.ofPattern("dd/MM/uuuu")
+            .withResolverStyle(ResolverStyle.STRICT);
+
+    private static final String EMAIL_REGEX = "^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$";
+    private static final Pattern EMAIL = Pattern.compile(EMAIL_REGEX);
+
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    // remote validation-service base URL, null when validating in-process
+    private final String remoteUrl;
+
+    // Same rule set as validation-service (rules.py / validators.py), compiled once at startup. Like
+    // validate_payload, email and phone fall back to the first email-like / phone-like string anywhere in the
+    // record when no field has one of the known names.
+    private final CompiledRuleSet defaultRules = compile(List.of(
+            new ValidationRule("birthDate", List.of("dateOfBirth", "dob"), "min_age", null, 18.0, null, "must be at least 18 years old"),
+            new ValidationRule("email", List.of("emailAddress", "emailAddr"), "pattern", EMAIL_REGEX, null, null, "invalid email format"),
+            new ValidationRule("phone", List.of("phoneNumber", "mobile", "PrimaryPhone"), "pattern",
+                    "^\\+?[0-9\\-\\s\\(\\)]+$", null, null, "invalid characters in phone number"),
+            new ValidationRule("phone", List.of("phoneNumber", "mobile", "PrimaryPhone"), "digits", null, 7.0, 15.0, "phone number has invalid length")
+    ), Map.of(
+            "email", s -> EMAIL.matcher(s).matches(),
+            "phone", s -> {
+                int digits = countDigits(s);
+                return digits >= 7 && digits <= 15;
+            }
+    ));
+
+    public ValidationService(@Value("${mapping.validation.backend:local}") String backend,
+                             @Value("${mapping.validation.service-url:}") String serviceUrl) {
+        if (!"remote".equalsIgnoreCase(backend)) {
+            this.remoteUrl = null;
+        } else if (serviceUrl == null || serviceUrl.isEmpty()) {
+            logger.warn("Validation backend is remote but mapping.validation.service-url is not set; validating locally.");
+            this.remoteUrl = null;
+        } else {
+            this.remoteUrl = serviceUrl;
+        }
+    }
+
+    public CompiledRuleSet defaultRules() {
+        return defaultRules;
+    }
+
+    /**
+     * Compile rule definitions. Throws IllegalArgumentException for unknown rule types or invalid regexes, and
+     * for any custom rules when the remote backend is configured.
+     */
+    public CompiledRuleSet compile(List<ValidationRule> rules) {
+        if (rules != null && remoteUrl != null) {
+            throw new IllegalArgumentException("custom validation rules are not supported by the remote validation backend");
+        }
+        return compile(rules, Map.of());
+    }
+
+    private static CompiledRuleSet compile(List<ValidationRule> rules, Map<String, Predicate<String>> contentScans) {
+        if (rules == null || rules.isEmpty()) {
+            return new CompiledRuleSet(List.of());
+        }
+        List<CompiledRule> compiled = new ArrayList<>(rules.size());
+        for (ValidationRule r : rules) {
+            if (r.getField() == null || r.getField().isEmpty()) {
+                throw new IllegalArgumentException("validation rule without field: " + r);
+            }
+            RuleType type = RuleType.parse(r.getType());
+            Pattern pattern = null;
+            if (type == RuleType.PATTERN) {
+                if (r.getPattern() == null) {
+                    throw new IllegalArgumentException("pattern rule without pattern: " + r);
+                }
+                try {
+                    pattern = Pattern.compile(r.getPattern());
+                } catch (PatternSyntaxException e) {
+                    throw new IllegalArgumentException("invalid pattern in rule " + r + ": " + e.getDescription());
+                }
+            }
+            Set<String> names = new HashSet<>();
+            String[] path = r.getField().split("\\.");
+            names.add(path[path.length - 1]);
+            if (r.getAliases() != null) names.addAll(r.getAliases());
+            compiled.add(new CompiledRule(r.getField(), path, names, type, pattern, r.getMin(), r.getMax(), r.getMessage(),
+                    contentScans.get(r.getField())));
+        }
+        return new CompiledRuleSet(compiled);
+    }
+
+    /**
+     * Validate a single transformed record. Results are deduplicated by field, preferring failures.
+     */
+    public List<ValidationResult> validate(Map<String, Object> data, CompiledRuleSet rules) {
+        if (remoteUrl != null) {
+            List<ValidationResult> remote = validateRemote(data);
+            if (remote != null) return remote;
+        }
+        return validateLocal(data, rules);
+    }
+
+    public static boolean allValid(List<ValidationResult> results) {
+        for (ValidationResult r : results) {
+            if (!r.isValid()) return false;
+        }
+        return true;
+    }
+
+    private static int countDigits(String s) {
+        int digits = 0;
+        for (int i = 0; i < s.length(); i++) {
+            if (Character.isDigit(s.charAt(i))) digits++;
+        }
+        return digits;
+    }
+
+    List<ValidationResult> validateLocal(Map<String, Object> data, CompiledRuleSet rules) {
+        Map<String, ValidationResult> byField = new LinkedHashMap<>();
+        if (data == null) data = Map.of();
+        for (CompiledRule rule : rules.rules) {
+            ValidationResult r = rule.evaluate(data);
+            if (r == null) continue;
+            ValidationResult existing = byField.get(r.getField());
+            if (existing == null || (existing.isValid() && !r.isValid())) {
+                byField.put(r.getField(), r);
+            }
+        }
+        return new ArrayList<>(byField.values());
+    }
+
+    // Delegate to the Python validation-service, which applies its own rule set (custom rules are rejected in compile)
+    private List<ValidationResult> validateRemote(Map<String, Object> data) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        try {
+            JsonNode resp = restTemplate.postForObject(remoteUrl + "/validate", new HttpEntity<>(data, headers), JsonNode.class);
+            if (resp == null) return null;
+            List<ValidationResult> results = new ArrayList<>();
+            for (JsonNode e : resp.path("errors")) {
+                results.add(new ValidationResult(e.path("field").asText(null), e.path("valid").asBoolean(false),
+                        e.path("error").isNull() ? null : e.path("error").asText(null)));
+            }
+            return results;
+        } catch (Exception ex) {
+            logger.warn("Remote validation failed: {} - validating locally.", ex.getMessage());
+            return null;
+        }
+    }
+
+    enum RuleType {
+        REQUIRED, PATTERN, RANGE, DIGITS, MIN_AGE;
+
+        static RuleType parse(String type) {
+            if (type == null) throw new IllegalArgumentException("validation rule without type");
+            try {
+                return RuleType.valueOf(type.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("unknown validation rule type: " + type);
+            }
+        }
+    }
+
+    /**
+     * Immutable, thread-safe set of compiled rules; safe to share across requests and job workers.
+     */
+    public static final class CompiledRuleSet {
+        private final List<CompiledRule> rules;
+
+        private CompiledRuleSet(List<CompiledRule> rules) {
+            this.rules = rules;
+        }
+
+        public int size() {
+            return rules.size();
+        }
+    }
+
+    private static final class CompiledRule {
+        private final String field;
+        private final String[] path;
+        private final Set<String> names;
+        private final RuleType type;
+        private final Pattern pattern;
+        private final Double min;
+        private final Double max;
+        private final String message;
+        // fallback when neither the path nor a known name is found: the first string value it accepts
+        private final Predicate<String> contentScan;
+
+        CompiledRule(String field, String[] path, Set<String> names, RuleType type, Pattern pattern, Double min, Double max,
+                     String message, Predicate<String> contentScan) {
+            this.field = field;
+            this.path = path;
+            this.names = names;
+            this.type = type;
+            this.pattern = pattern;
+            this.min = min;
+            this.max = max;
+            this.message = message;
+            this.contentScan = contentScan;
+        }
+
+        ValidationResult evaluate(Map<String, Object> data) {
+            Object value = lookup(data);
+            if (value == null) {
+                if (type == RuleType.REQUIRED) return fail("missing required field");
+                return null;
+            }
+            switch (type) {
+                case REQUIRED:
+                    if (value instanceof String && ((String) value).isBlank()) return fail("missing required field");
+                    return ok();
+                case PATTERN:
+                    if (!(value instanceof String)) return typeMismatch(value);
+                    // the whole value must match, anchors or not (unlike Python's re.match, which only anchors the start)
+                    return pattern.matcher((String) value).matches() ? ok() : fail("does not match pattern");
+                case RANGE: {
+                    Double d = toNumber(value);
+                    if (d == null) return fail("expected number, got " + value.getClass().getSimpleName());
+                    return inRange(d) ? ok() : fail("must be between " + min + " and " + max);
+                }
+                case DIGITS: {
+                    if (!(value instanceof String)) return typeMismatch(value);
+                    return inRange(countDigits((String) value)) ? ok() : fail("invalid number of digits");
+                }
+                case MIN_AGE: {
+                    if (!(value instanceof String)) return typeMismatch(value);
+                    LocalDate dob = parseDate((String) value);
+                    if (dob == null) return new ValidationResult(field, false, "invalid date format, expected YYYY-MM-DD");
+                    int age = Period.between(dob, LocalDate.now()).getYears();
+                    return inRange(age) ? ok() : fail("age out of range");
+                }
+                default:
+                    return null;
+            }
+        }
+
+        // Direct path first, then the first matching key name anywhere in the document, then the content scan
+        // (like validation-service)
+        @SuppressWarnings("unchecked")
+        private Object lookup(Map<String, Object> data) {
+            Object current = data;
+            for (String p : path) {
+                if (!(current instanceof Map)) {
+                    current = null;
+                    break;
+                }
+                current = ((Map<String, Object>) current).get(p);
+            }
+            if (current != null) return current;
+            Object found = findKey(data);
+            if (found != null || contentScan == null) return found;
+            return scanValues(data);
+        }
+
+        @SuppressWarnings("unchecked")
+        private Object findKey(Object obj) {
+            if (obj instanceof Map) {
+                Map<String, Object> m = (Map<String, Object>) obj;
+                for (Map.Entry<String, Object> e : m.entrySet()) {
+                    if (names.contains(e.getKey()) && e.getValue() != null) return e.getValue();
+                }
+                for (Object v : m.values()) {
+                    Object found = findKey(v);
+                    if (found != null) return found;
+                }
+            } else if (obj instanceof List) {
+                for (Object item : (List<Object>) obj) {
+                    Object found = findKey(item);
+                    if (found != null) return found;
+                }
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private String scanValues(Object obj) {
+            if (obj instanceof String) {
+                return contentScan.test((String) obj) ? (String) obj : null;
+            }
+            Collection<Object> children = obj instanceof Map ? ((Map<String, Object>) obj).values()
+                    : obj instanceof List ? (List<Object>) obj : List.of();
+            for (Object child : children) {
+                String found = scanValues(child);
+                if (found != null) return found;
+            }
+            return null;
+        }
+
+        private boolean inRange(double v) {
+            return (min == null || v >= min) && (max == null || v <= max);
+        }
+
+        private static Double toNumber(Object value) {
+            if (value instanceof Number) return ((Number) value).doubleValue();
+            if (value instanceof String) {
+                try {
+                    return Double.parseDouble(((String) value).trim());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+            return null;
+        }
+
+        // Accept ISO yyyy-MM-dd and dd/MM/yyyy (the transformer's date_format output)
+        private static LocalDate parseDate(String s) {
+            try {
+                return LocalDate.parse(s);
+            } catch (DateTimeParseException ignored) {
+            }
+            try {
+                return LocalDate.parse(s, DAY_MONTH_YEAR);
+            } catch (DateTimeParseException ignored) {
+            }
+            return null;
+        }
+
+        private ValidationResult ok() {
+            return new ValidationResult(field, true, null);
+        }
+
+        private ValidationResult fail(String defaultMessage) {
+            return new ValidationResult(field, false, message != null ? message : defaultMessage);
+        }
+
+        private ValidationResult typeMismatch(Object value) {
+            return new ValidationResult(field, false, "expected string for " + field + ", got " + value.getClass().getSimpleName());
+        }
+    }
+}
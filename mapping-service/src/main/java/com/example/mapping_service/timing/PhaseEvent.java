@@ -0,0 +1,27 @@
+package com.example.mapping_service.timing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One phase of a request. Recorded only when it takes longer than the threshold; override it in a JFR settings
+ * file (see jfr/mapping.jfc).
+ */
+@Name("com.example.mapping.Phase")
+@Label("Mapping Request Phase")
+@Category("Mapping Service")
+@Description("Time spent in one phase of a mapping-service request")
+@Threshold("5 ms")
+@StackTrace(false)
+final class PhaseEvent extends jdk.jfr.Event {
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Phase")
+    String phase;
+}
@@ -0,0 +1,122 @@
+package com.example.mapping_service.timing;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Per-request phase timing. Each phase is a JFR {@link PhaseEvent} (committed only above its threshold) and, when
+ * the Server-Timing header is enabled, also a duration in the header.
+ *
+ * Usage: {@code try (PhaseTimer.Phase p = PhaseTimer.start("plan")) { ... }}. Outside a request, or with JFR off
+ * and Server-Timing disabled, a phase costs two small allocations the JIT usually removes.
+ */
+public final class PhaseTimer {
+
+    private static final ThreadLocal<PhaseTimer> CURRENT = new ThreadLocal<>();
+
+    private final String endpoint;
+    private final boolean collect;
+    private String[] names = new String[8];
+    private long[] nanos = new long[8];
+    private int size;
+    // a phase that starts and ends in different callbacks (request body read, response write)
+    private Phase open;
+
+    private PhaseTimer(String endpoint, boolean collect) {
+        this.endpoint = endpoint;
+        this.collect = collect;
+    }
+
+    static PhaseTimer begin(String endpoint, boolean collect) {
+        PhaseTimer timer = new PhaseTimer(endpoint, collect);
+        CURRENT.set(timer);
+        return timer;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    public static Phase start(String name) {
+        return new Phase(CURRENT.get(), name);
+    }
+
+    /**
+     * Start a phase that {@link #closeOpen()} ends, closing any phase still open.
+     */
+    public static void open(String name) {
+        PhaseTimer timer = CURRENT.get();
+        if (timer == null) return;
+        timer.closePending();
+        timer.open = new Phase(timer, name);
+    }
+
+    public static void closeOpen() {
+        PhaseTimer timer = CURRENT.get();
+        if (timer != null) timer.closePending();
+    }
+
+    void closePending() {
+        if (open != null) {
+            Phase phase = open;
+            open = null;
+            phase.close();
+        }
+    }
+
+    // repeated phases add up
+    private void add(String name, long duration) {
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(name)) {
+                nanos[i] += duration;
+                return;
+            }
+        }
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            nanos = Arrays.copyOf(nanos, size * 2);
+        }
+        names[size] = name;
+        nanos[size++] = duration;
+    }
+
+    /**
+     * Server-Timing value: {@code parse;dur=0.41, plan;dur=0.02, ..., total;dur=1.93} (milliseconds).
+     */
+    String serverTiming(long totalNanos) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            appendMetric(sb, names[i], nanos[i]).append(", ");
+        }
+        return appendMetric(sb, "total", totalNanos).toString();
+    }
+
+    private static StringBuilder appendMetric(StringBuilder sb, String name, long nanos) {
+        return sb.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.2f", nanos / 1e6));
+    }
+
+    public static final class Phase implements AutoCloseable {
+        private final PhaseTimer timer;
+        private final String name;
+        private final PhaseEvent event = new PhaseEvent();
+        private final long start;
+
+        private Phase(PhaseTimer timer, String name) {
+            this.timer = timer;
+            this.name = name;
+            this.start = timer != null && timer.collect ? System.nanoTime() : 0L;
+            event.begin();
+        }
+
+        @Override
+        public void close() {
+            event.end();
+            if (event.shouldCommit()) {
+                event.endpoint = timer != null ? timer.endpoint : null;
+                event.phase = name;
+                event.commit();
+            }
+            if (timer != null && timer.collect) timer.add(name, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.mapping_service.timing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A whole request, from the outermost filter to the last byte of the response. Its phases are the
+ * {@link PhaseEvent}s on the same thread within its time span.
+ */
+@Name("com.example.mapping.Request")
+@Label("Mapping Request")
+@Category("Mapping Service")
+@Description("A mapping-service request slower than the threshold")
+@Threshold("50 ms")
+@StackTrace(false)
+final class RequestEvent extends jdk.jfr.Event {
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Status")
+    int status;
+}
@@ -0,0 +1,63 @@
+package com.example.mapping_service.timing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Outermost filter: scopes the {@link PhaseTimer} to the request and records the {@link RequestEvent}.
+ *
+ * With Server-Timing enabled the response is buffered, so the header can still be added once the body has been
+ * written (and compressed); leave it off where responses are large or streamed.
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Server-Timing";
+
+    private final boolean serverTiming;
+
+    public ServerTimingFilter(boolean serverTiming) {
+        this.serverTiming = serverTiming;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String endpoint = request.getMethod() + " " + request.getServletPath();
+        RequestEvent event = new RequestEvent();
+        event.begin();
+        long start = System.nanoTime();
+        PhaseTimer timer = PhaseTimer.begin(endpoint, serverTiming);
+        try {
+            if (!serverTiming) {
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    timer.closePending();
+                }
+                return;
+            }
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            try {
+                chain.doFilter(request, wrapper);
+            } finally {
+                timer.closePending();
+                wrapper.setHeader(HEADER, timer.serverTiming(System.nanoTime() - start));
+                wrapper.copyBodyToResponse();
+            }
+        } finally {
+            PhaseTimer.end();
+            event.end();
+            if (event.shouldCommit()) {
+                event.endpoint = endpoint;
+                event.status = response.getStatus();
+                event.commit();
+            }
+        }
+    }
+}
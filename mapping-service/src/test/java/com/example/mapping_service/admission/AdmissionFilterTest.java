@@ -0,0 +1,98 @@
+package com.example.mapping_service.admission;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionFilterTest {
+
+    @Test
+    void rateLimitsPerClient() throws Exception {
+        AdmissionFilter filter = rateLimited();
+
+        assertThat(post(filter, "10.0.0.1", null).getStatus()).isEqualTo(200);
+        MockHttpServletResponse limited = post(filter, "10.0.0.1", null);
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(limited.getHeader("Retry-After")).isNotNull();
+        assertThat(post(filter, "10.0.0.2", null).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void trustsTheClientHeaderOnlyFromTrustedProxies() throws Exception {
+        AdmissionFilter filter = rateLimited();
+
+        assertThat(post(filter, "10.0.0.9", "a").getStatus()).isEqualTo(200);
+        assertThat(post(filter, "10.0.0.9", "b").getStatus()).isEqualTo(200);
+        assertThat(post(filter, "10.0.0.9", "a").getStatus()).isEqualTo(429);
+        // an untrusted caller cannot get a fresh bucket by changing the header
+        assertThat(post(filter, "10.0.0.1", "x").getStatus()).isEqualTo(200);
+        assertThat(post(filter, "10.0.0.1", "y").getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void forgetsTheLeastRecentlySeenClientsFirst() throws Exception {
+        AdmissionFilter filter = rateLimited();
+        post(filter, "old", null);
+        post(filter, "recent", null);
+        // seen again (and rejected), so no longer the least recently seen
+        assertThat(post(filter, "old", null).getStatus()).isEqualTo(429);
+
+        for (int i = 0; i < AdmissionFilter.MAX_TRACKED_CLIENTS - 1; i++) {
+            post(filter, "client-" + i, null);
+        }
+
+        assertThat(post(filter, "old", null).getStatus()).isEqualTo(429);
+        // evicted, so it starts over with a full bucket
+        assertThat(post(filter, "recent", null).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void rejectsWhenNoConcurrencySlotIsFree() throws Exception {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setSuggest(new AdmissionProperties.Endpoint(1, 0, 0));
+        properties.getSuggest().setRetryAfterSeconds(3);
+        AdmissionFilter filter = new AdmissionFilter(properties);
+
+        // the inner request runs while the outer one holds the only slot
+        MockHttpServletResponse[] inner = new MockHttpServletResponse[1];
+        MockHttpServletResponse outer = new MockHttpServletResponse();
+        filter.doFilter(request("10.0.0.1", null), outer, (req, res) -> inner[0] = post(filter, "10.0.0.2", null));
+
+        assertThat(outer.getStatus()).isEqualTo(200);
+        assertThat(inner[0].getStatus()).isEqualTo(503);
+        assertThat(inner[0].getHeader("Retry-After")).isEqualTo("3");
+        assertThat(post(filter, "10.0.0.2", null).getStatus()).isEqualTo(200);
+    }
+
+    // one request per client, practically no refill during a test
+    private static AdmissionFilter rateLimited() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setTrustedProxies(List.of("10.0.0.9"));
+        properties.getSuggest().setRatePerSecond(0.001);
+        properties.getSuggest().setBurst(1);
+        return new AdmissionFilter(properties);
+    }
+
+    private static MockHttpServletResponse post(AdmissionFilter filter, String remoteAddr, String clientId) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request(remoteAddr, clientId), response, new MockFilterChain());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String clientId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/mapping/suggest");
+        request.setServletPath("/mapping/suggest");
+        request.setRemoteAddr(remoteAddr);
+        if (clientId != null) request.addHeader("X-Client-Id", clientId);
+        return request;
+    }
+}
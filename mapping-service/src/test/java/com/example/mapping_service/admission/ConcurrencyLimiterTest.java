@@ -0,0 +1,100 @@
+package com.example.mapping_service.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimiterTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void rejectsImmediatelyWhenTheQueueIsFull() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 10_000, false, 1, 1.5);
+        assertThat(limiter.acquire()).isTrue();
+
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> acquire(limiter));
+        awaitWaiting(limiter, 1);
+
+        long start = System.nanoTime();
+        assertThat(limiter.acquire()).isFalse();
+        assertThat(System.nanoTime() - start).isLessThan(1000 * MS);
+
+        limiter.release(MS);
+        assertThat(queued.get(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+        assertThat(limiter.getWaiting()).isZero();
+    }
+
+    @Test
+    void withoutAQueueRejectsAsSoonAsTheLimitIsReached() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 0, 10_000, false, 1, 1.5);
+
+        assertThat(limiter.acquire()).isTrue();
+        assertThat(limiter.acquire()).isTrue();
+        assertThat(limiter.acquire()).isFalse();
+        limiter.release(MS);
+        assertThat(limiter.acquire()).isTrue();
+    }
+
+    @Test
+    void rejectsAfterMaxWait() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 4, 50, false, 1, 1.5);
+        assertThat(limiter.acquire()).isTrue();
+
+        long start = System.nanoTime();
+        assertThat(limiter.acquire()).isFalse();
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(50 * MS);
+        assertThat(limiter.getWaiting()).isZero();
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void adaptiveLimitGrowsWhileLatencyIsFlatAndShrinksWhenItRises() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(20, 0, 0, true, 2, 1.5);
+        assertThat(limiter.getLimit()).isEqualTo(11);
+
+        for (int round = 0; round < 30; round++) {
+            int limit = limiter.getLimit();
+            for (int i = 0; i < limit; i++) assertThat(limiter.acquire()).isTrue();
+            for (int i = 0; i < limit; i++) limiter.release(MS);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(20);
+
+        for (int i = 0; i < 40; i++) {
+            assertThat(limiter.acquire()).isTrue();
+            limiter.release(100 * MS);
+        }
+        assertThat(limiter.getLimit()).isBetween(2, 4);
+    }
+
+    @Test
+    void adaptiveLimitDoesNotGrowWhileMostlyIdle() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(20, 0, 0, true, 2, 1.5);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.acquire()).isTrue();
+            limiter.release(MS);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(11);
+    }
+
+    private static boolean acquire(ConcurrencyLimiter limiter) {
+        try {
+            return limiter.acquire();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitWaiting(ConcurrencyLimiter limiter, int waiting) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000 * MS;
+        while (limiter.getWaiting() < waiting) {
+            if (System.nanoTime() > deadline) throw new AssertionError("nobody queued");
+            Thread.sleep(1);
+        }
+    }
+}
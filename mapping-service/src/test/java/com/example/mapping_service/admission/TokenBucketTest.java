@@ -0,0 +1,31 @@
+package com.example.mapping_service.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    @Test
+    void allowsABurstThenReportsTheWaitForTheNextToken() {
+        TokenBucket bucket = new TokenBucket(1, 3);
+
+        for (int i = 0; i < 3; i++) assertThat(bucket.tryConsume()).isZero();
+        // one token per second, so the next one is (almost) a second away
+        assertThat(bucket.tryConsume()).isBetween(900_000_000L, 1_000_000_000L);
+    }
+
+    @Test
+    void refillsOverTimeUpToTheBurst() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1000, 2);
+        assertThat(bucket.tryConsume()).isZero();
+        assertThat(bucket.tryConsume()).isZero();
+        assertThat(bucket.tryConsume()).isPositive();
+
+        Thread.sleep(50);
+        // 50 ms at 1000/s is 50 tokens, but the bucket only holds 2
+        assertThat(bucket.tryConsume()).isZero();
+        assertThat(bucket.tryConsume()).isZero();
+        assertThat(bucket.tryConsume()).isPositive();
+    }
+}
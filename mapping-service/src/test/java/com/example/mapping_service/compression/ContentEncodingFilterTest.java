@@ -0,0 +1,123 @@
+package com.example.mapping_service.compression;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "mapping.compression.min-response-size=256",
+        "mapping.compression.max-decoded-request-size=4096"
+})
+@AutoConfigureMockMvc
+class ContentEncodingFilterTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void largeResponsesAreEncodedWithTheNegotiatedCoding() throws Exception {
+        MockHttpServletResponse response = transform(transformBody(40), "gzip;q=0.5, zstd");
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("zstd");
+        assertThat(response.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(decode(ContentEncoding.ZSTD, response.getContentAsByteArray())).contains("\"f39\":\"v39\"");
+    }
+
+    @Test
+    void smallResponsesAreSentAsIs() throws Exception {
+        MockHttpServletResponse response = transform(transformBody(1), "gzip");
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getContentAsString()).contains("\"f0\":\"v0\"");
+        assertThat(response.getContentLength()).isEqualTo(response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void everyResponseVariesOnAcceptEncoding() throws Exception {
+        for (String accept : new String[]{null, "identity", "gzip;q=0"}) {
+            MockHttpServletResponse response = transform(transformBody(40), accept);
+
+            assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).as(accept).isNull();
+            assertThat(response.getHeaders(HttpHeaders.VARY)).as(accept).contains(HttpHeaders.ACCEPT_ENCODING);
+            assertThat(response.getContentAsString()).as(accept).contains("\"f39\":\"v39\"");
+        }
+    }
+
+    @Test
+    void encodedRequestBodiesAreDecoded() throws Exception {
+        for (ContentEncoding coding : ContentEncoding.values()) {
+            mvc.perform(post("/mapping/transform")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .header(HttpHeaders.CONTENT_ENCODING, coding.token())
+                            .content(ContentEncodingTest.encode(coding, transformBody(3).getBytes(StandardCharsets.UTF_8))))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void unsupportedRequestEncodingIsRejected() throws Exception {
+        mvc.perform(post("/mapping/transform")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.CONTENT_ENCODING, "br")
+                        .content(new byte[]{1, 2, 3}))
+                .andExpect(status().isUnsupportedMediaType())
+                .andExpect(header().string(HttpHeaders.ACCEPT_ENCODING, "gzip, zstd"));
+    }
+
+    @Test
+    void bodyDecodingPastTheLimitIsRejected() throws Exception {
+        // well under the limit compressed, far over it decoded
+        String padded = "{\"sourceData\":{\"pad\":\"" + "x".repeat(100_000) + "\"},\"mappings\":[]}";
+        byte[] compressed = ContentEncodingTest.encode(ContentEncoding.GZIP, padded.getBytes(StandardCharsets.UTF_8));
+        assertThat(compressed.length).isLessThan(4096);
+
+        mvc.perform(post("/mapping/transform")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .content(compressed))
+                .andExpect(status().isPayloadTooLarge());
+    }
+
+    private MockHttpServletResponse transform(String body, String acceptEncoding) throws Exception {
+        var request = post("/mapping/transform").contentType(MediaType.APPLICATION_JSON).content(body);
+        if (acceptEncoding != null) request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        return mvc.perform(request).andReturn().getResponse();
+    }
+
+    // fields f0..fn-1 copied one to one
+    private static String transformBody(int fields) {
+        StringBuilder source = new StringBuilder();
+        StringBuilder mappings = new StringBuilder();
+        for (int i = 0; i < fields; i++) {
+            if (i > 0) {
+                source.append(',');
+                mappings.append(',');
+            }
+            source.append("\"f").append(i).append("\":\"v").append(i).append('"');
+            mappings.append("{\"sourcePath\":\"f").append(i).append("\",\"targetPath\":\"f").append(i)
+                    .append("\",\"transformationType\":\"direct\"}");
+        }
+        return "{\"sourceData\":{" + source + "},\"mappings\":[" + mappings + "]}";
+    }
+
+    private static String decode(ContentEncoding coding, byte[] body) throws Exception {
+        try (InputStream in = coding.decode(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
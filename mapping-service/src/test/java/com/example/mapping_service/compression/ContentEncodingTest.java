@@ -0,0 +1,85 @@
+package com.example.mapping_service.compression;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentEncodingTest {
+
+    @Test
+    void noHeaderOrNoSupportedCodingMeansNoEncoding() {
+        assertThat(ContentEncoding.negotiate(null)).isNull();
+        assertThat(ContentEncoding.negotiate("")).isNull();
+        assertThat(ContentEncoding.negotiate("br, deflate")).isNull();
+        assertThat(ContentEncoding.negotiate("identity")).isNull();
+    }
+
+    @Test
+    void prefersZstdOnEqualQuality() {
+        assertThat(ContentEncoding.negotiate("gzip")).isEqualTo(ContentEncoding.GZIP);
+        assertThat(ContentEncoding.negotiate("x-gzip")).isEqualTo(ContentEncoding.GZIP);
+        assertThat(ContentEncoding.negotiate("zstd")).isEqualTo(ContentEncoding.ZSTD);
+        assertThat(ContentEncoding.negotiate("gzip, deflate, br, zstd")).isEqualTo(ContentEncoding.ZSTD);
+    }
+
+    @Test
+    void honoursQValues() {
+        assertThat(ContentEncoding.negotiate("gzip;q=1.0, zstd;q=0.5")).isEqualTo(ContentEncoding.GZIP);
+        assertThat(ContentEncoding.negotiate("gzip ; q=0.2, zstd ; Q=0.3")).isEqualTo(ContentEncoding.ZSTD);
+        assertThat(ContentEncoding.negotiate("zstd;q=0, gzip")).isEqualTo(ContentEncoding.GZIP);
+        assertThat(ContentEncoding.negotiate("zstd;q=0, gzip;q=0")).isNull();
+        // malformed or out of range q-values count as q=0
+        assertThat(ContentEncoding.negotiate("zstd;q=abc, gzip;q=0.1")).isEqualTo(ContentEncoding.GZIP);
+        assertThat(ContentEncoding.negotiate("zstd;q=2")).isNull();
+    }
+
+    @Test
+    void wildcardCoversUnlistedCodingsOnly() {
+        assertThat(ContentEncoding.negotiate("*")).isEqualTo(ContentEncoding.ZSTD);
+        assertThat(ContentEncoding.negotiate("*;q=0")).isNull();
+        assertThat(ContentEncoding.negotiate("zstd;q=0, *")).isEqualTo(ContentEncoding.GZIP);
+        assertThat(ContentEncoding.negotiate("gzip, *;q=0")).isEqualTo(ContentEncoding.GZIP);
+        assertThat(ContentEncoding.negotiate("gzip;q=0.9, *;q=0.5")).isEqualTo(ContentEncoding.GZIP);
+    }
+
+    @Test
+    void identityWithHigherQualityDisablesEncoding() {
+        assertThat(ContentEncoding.negotiate("identity, gzip;q=0.5")).isNull();
+        assertThat(ContentEncoding.negotiate("identity;q=0.5, gzip")).isEqualTo(ContentEncoding.GZIP);
+        assertThat(ContentEncoding.negotiate("identity, gzip")).isEqualTo(ContentEncoding.GZIP);
+    }
+
+    @Test
+    void parsesContentEncodingTokens() {
+        assertThat(ContentEncoding.fromToken(" GZIP ")).isEqualTo(ContentEncoding.GZIP);
+        assertThat(ContentEncoding.fromToken("x-gzip")).isEqualTo(ContentEncoding.GZIP);
+        assertThat(ContentEncoding.fromToken("zstd")).isEqualTo(ContentEncoding.ZSTD);
+        assertThat(ContentEncoding.fromToken("br")).isNull();
+    }
+
+    @Test
+    void encodedBodiesDecodeToTheOriginal() throws Exception {
+        byte[] body = "{\"a\":1}".repeat(500).getBytes(StandardCharsets.UTF_8);
+        for (ContentEncoding coding : ContentEncoding.values()) {
+            byte[] encoded = encode(coding, body);
+            assertThat(encoded.length).as(coding.token()).isLessThan(body.length);
+            try (InputStream in = coding.decode(new ByteArrayInputStream(encoded))) {
+                assertThat(in.readAllBytes()).as(coding.token()).isEqualTo(body);
+            }
+        }
+    }
+
+    static byte[] encode(ContentEncoding coding, byte[] body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream encoder = coding.encode(out)) {
+            encoder.write(body);
+        }
+        return out.toByteArray();
+    }
+}
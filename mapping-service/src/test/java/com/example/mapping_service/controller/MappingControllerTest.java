@@ -0,0 +1,61 @@
+package com.example.mapping_service.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MappingControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void transformMapsArrays() throws Exception {
+        mvc.perform(post("/mapping/transform")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"sourceData": {"items": [{"sku": "A"}, {"sku": "B"}]},
+                                 "mappings": [{"sourcePath": "items[*].sku", "targetPath": "lines[*].sku", "transformationType": "direct"}]}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transformedData.lines[1].sku").value("B"))
+                .andExpect(jsonPath("$.errors").doesNotExist())
+                .andExpect(jsonPath("$.errorCount").doesNotExist())
+                .andExpect(jsonPath("$.valid").doesNotExist());
+    }
+
+    @Test
+    void transformReportsInvalidDates() throws Exception {
+        mvc.perform(post("/mapping/transform")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"sourceData": {"born": "yesterday"},
+                                 "mappings": [{"sourcePath": "born", "targetPath": "birthDate", "transformationType": "date_format"}]}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transformedData.birthDate").value("yesterday"))
+                .andExpect(jsonPath("$.errorCount").value(1))
+                .andExpect(jsonPath("$.errors[0].code").value("INVALID_DATE"))
+                .andExpect(jsonPath("$.errors[0].sourcePath").value("born"));
+    }
+
+    @Test
+    void transformRejectsMalformedIndex() throws Exception {
+        mvc.perform(post("/mapping/transform")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"sourceData": {"items": []},
+                                 "mappings": [{"sourcePath": "items[x].sku", "targetPath": "sku", "transformationType": "direct"}]}
+                                """))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.mapping_service.service;
+
+import com.example.mapping_service.model.FieldMapping;
+import com.example.mapping_service.model.PatchOperation;
+import com.example.mapping_service.model.TransformError;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class DeltaTransformServiceTest {
+
+    private final DeltaTransformService service = new DeltaTransformService(new MappingService(), null);
+    private final TransformErrors errors = new TransformErrors(10, 10);
+
+    @Test
+    void patchCarryingTheWholeValueIsResolvedWithoutPreviousSource() {
+        MappingPlan plan = plan(direct("customer.name", "name"), direct("customer.id", "id"));
+
+        List<PatchOperation> ops = service.delta(plan, map("name", "A", "id", 1), null,
+                List.of(op("replace", "/customer/name", "B")), errors);
+
+        assertThat(ops).extracting(PatchOperation::getOp, PatchOperation::getPath, PatchOperation::getValue)
+                .containsExactly(tuple("replace", "/name", "B"));
+        assertThat(errors.getCount()).isZero();
+    }
+
+    @Test
+    void wildcardElementChangeIsUnresolvedWithoutPreviousSource() {
+        MappingPlan plan = plan(direct("items[*].sku", "skus[*]"));
+
+        List<PatchOperation> ops = service.delta(plan, map("skus", List.of("A", "B")), null,
+                List.of(op("replace", "/items/1/sku", "C")), errors);
+
+        assertThat(ops).isEmpty();
+        assertUnresolved("/skus");
+    }
+
+    @Test
+    void wildcardElementChangeIsRecomputedFromPreviousSource() {
+        MappingPlan plan = plan(direct("items[*].sku", "skus[*]"));
+        Map<String, Object> previousSource = map("items", new ArrayList<>(List.of(map("sku", "A"), map("sku", "B"))));
+
+        List<PatchOperation> ops = service.delta(plan, map("skus", List.of("A", "B")), previousSource,
+                List.of(op("replace", "/items/1/sku", "C")), errors);
+
+        assertThat(ops).hasSize(1);
+        assertThat(ops.get(0).getPath()).isEqualTo("/skus");
+        assertThat(ops.get(0).getValue()).isEqualTo(List.of("A", "C"));
+        assertThat(errors.getCount()).isZero();
+    }
+
+    @Test
+    void fixedIndexWithinThePatchIsResolvedWithoutPreviousSource() {
+        MappingPlan plan = plan(direct("items[0].sku", "first"));
+
+        List<PatchOperation> ops = service.delta(plan, map("first", "A"), null,
+                List.of(op("replace", "/items/0/sku", "B")), errors);
+
+        assertThat(ops).extracting(PatchOperation::getValue).containsExactly("B");
+        assertThat(errors.getCount()).isZero();
+    }
+
+    @Test
+    void indexPastTheKnownArrayIsUnresolvedWithoutPreviousSource() {
+        MappingPlan plan = plan(direct("items[3].sku", "fourth"));
+
+        List<PatchOperation> ops = service.delta(plan, map("fourth", "A"), null,
+                List.of(op("replace", "/items/3/sku", "B")), errors);
+
+        assertThat(ops).isEmpty();
+        assertUnresolved("/fourth");
+    }
+
+    @Test
+    void hugeIndexIsNotPaddedWithoutPreviousSource() {
+        MappingPlan plan = plan(direct("items[*].sku", "skus[*]"), direct("id", "id"));
+
+        List<PatchOperation> ops = service.delta(plan, map("id", 1), null,
+                List.of(op("replace", "/items/2000000000/sku", "B"), op("replace", "/id", 2)), errors);
+
+        assertThat(ops).extracting(PatchOperation::getPath).containsExactly("/id");
+        assertUnresolved("/skus");
+    }
+
+    @Test
+    void overlongIndexIsRejected() {
+        MappingPlan plan = plan(direct("items[*].sku", "skus[*]"));
+        Map<String, Object> previousSource = map("items", new ArrayList<>(List.of(map("sku", "A"))));
+
+        for (String path : List.of("/items/99999999999/sku", "/items/99999999999")) {
+            assertThatThrownBy(() -> service.delta(plan, map(), null, List.of(op("replace", path, "B")), errors))
+                    .as(path)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("out of range");
+            assertThatThrownBy(() -> service.delta(plan, map(), previousSource, List.of(op("replace", path, "B")), errors))
+                    .as(path)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+        assertThatThrownBy(() -> service.delta(plan, map(), previousSource,
+                List.of(Map.of("op", "remove", "path", "/items/99999999999")), errors))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("out of range");
+    }
+
+    @Test
+    void indexOutOfBoundsOfPreviousSourceIsRejected() {
+        MappingPlan plan = plan(direct("items[*].sku", "skus[*]"));
+        Map<String, Object> previousSource = map("items", new ArrayList<>(List.of(map("sku", "A"))));
+
+        assertThatThrownBy(() -> service.delta(plan, map(), previousSource,
+                List.of(op("replace", "/items/5", map("sku", "B"))), errors))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("out of bounds");
+    }
+
+    @Test
+    void mergePatchWithEmptyObjectReplacesAScalar() {
+        MappingPlan plan = plan(direct("address", "address"));
+
+        List<PatchOperation> ops = service.delta(plan, map("address", "unknown"), map("address", "unknown"),
+                map("address", map()), errors);
+
+        assertThat(ops).extracting(PatchOperation::getOp, PatchOperation::getPath, PatchOperation::getValue)
+                .containsExactly(tuple("replace", "/address", Map.of()));
+    }
+
+    @Test
+    void mergePatchWithEmptyObjectLeavesAnObjectAlone() {
+        MappingPlan plan = plan(direct("address", "address"));
+        Map<String, Object> address = map("city", "Budapest");
+
+        List<PatchOperation> ops = service.delta(plan, map("address", map("city", "Budapest")), map("address", address),
+                map("address", map()), errors);
+
+        assertThat(ops).isEmpty();
+        assertThat(errors.getCount()).isZero();
+    }
+
+    @Test
+    void mergePatchWithEmptyObjectIsUnresolvedWithoutPreviousSource() {
+        MappingPlan plan = plan(direct("address", "address"));
+
+        List<PatchOperation> ops = service.delta(plan, map("address", "unknown"), null, map("address", map()), errors);
+
+        assertThat(ops).isEmpty();
+        assertUnresolved("/address");
+    }
+
+    @Test
+    void mergePatchSetsNestedValues() {
+        MappingPlan plan = plan(direct("address.city", "city"));
+
+        List<PatchOperation> ops = service.delta(plan, map("city", "Pécs"), null,
+                map("address", map("city", "Győr")), errors);
+
+        assertThat(ops).extracting(PatchOperation::getValue).containsExactly("Győr");
+    }
+
+    private void assertUnresolved(String targetRoot) {
+        assertThat(errors.getErrors()).extracting(TransformError::getCode).containsOnly(TransformErrors.DELTA_UNRESOLVED);
+        assertThat(errors.getErrors()).extracting(TransformError::getMessage).allMatch(m -> m.endsWith(targetRoot));
+    }
+
+    private static MappingPlan plan(FieldMapping... mappings) {
+        return MappingPlan.compile(List.of(mappings));
+    }
+
+    private static FieldMapping direct(String source, String target) {
+        return new FieldMapping(source, target, "direct", 1.0);
+    }
+
+    private static Map<String, Object> op(String op, String path, Object value) {
+        return map("op", op, "path", path, "value", value);
+    }
+
+    // mutable, since full-mode deltas patch previousSource in place
+    private static Map<String, Object> map(Object... keysAndValues) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) m.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        return m;
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.mapping_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MappedNdjsonReaderTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int MAX_LINE_BYTES = 1024;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void splitsAtLineBoundaries() throws IOException {
+        Path file = write("a.ndjson", records(0, 100));
+
+        try (FileChannel channel = FileChannel.open(file)) {
+            List<MappedNdjsonReader.Segment> segments = MappedNdjsonReader.split(channel, 4);
+
+            assertThat(segments).hasSize(4);
+            assertContiguous(segments, channel.size());
+            for (MappedNdjsonReader.Segment s : segments) {
+                assertThat(byteAt(channel, s.getEnd() - 1)).isEqualTo((byte) '\n');
+            }
+            assertThat(readAll(channel, segments).records).isEqualTo(ids(0, 100));
+        }
+    }
+
+    @Test
+    void keepsALineStraddlingASplitPointInOneSegment() throws IOException {
+        // the long middle line covers every split point but the first
+        String content = "{\"id\":0}\n{\"id\":1,\"pad\":\"" + "x".repeat(900) + "\"}\n{\"id\":2}";
+
+        try (FileChannel channel = FileChannel.open(write("a.ndjson", content))) {
+            List<MappedNdjsonReader.Segment> segments = MappedNdjsonReader.split(channel, 8);
+
+            assertThat(segments).hasSizeLessThan(8);
+            assertContiguous(segments, channel.size());
+            // no trailing newline: the last segment ends at EOF
+            assertThat(readAll(channel, segments).records).isEqualTo(ids(0, 3));
+        }
+    }
+
+    @Test
+    void splitsLargeFilesIntoSegmentsThatCanBeMapped() throws IOException {
+        Path file = dir.resolve("sparse.ndjson");
+        long size = 2 * MappedNdjsonReader.MAX_SEGMENT_BYTES + 1000;
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(size);
+            // put newlines at the split points, so finding them doesn't scan gigabytes of zeros
+            for (int i = 1; i < 3; i++) {
+                raf.seek(size * i / 3);
+                raf.write('\n');
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(file)) {
+            List<MappedNdjsonReader.Segment> segments = MappedNdjsonReader.split(channel, 1);
+
+            assertThat(segments).hasSize(3);
+            assertContiguous(segments, size);
+            assertThat(segments).allMatch(s -> s.length() <= MappedNdjsonReader.MAX_SEGMENT_BYTES);
+        }
+    }
+
+    @Test
+    void skipsBlankLinesAndStripsCarriageReturns() throws IOException {
+        String content = "{\"id\":0}\r\n\r\n\n{\"id\":1}\r\n[1]\r\n\n{\"id\":2}";
+
+        try (FileChannel channel = FileChannel.open(write("a.ndjson", content))) {
+            Collected c = readAll(channel, MappedNdjsonReader.split(channel, 1));
+
+            assertThat(c.records).isEqualTo(ids(0, 3));
+            assertThat(c.malformed).isEqualTo(1);
+            assertThat(c.progress).isEqualTo(channel.size());
+        }
+    }
+
+    @Test
+    void reportsOverlongLinesAsMalformed() throws IOException {
+        String content = "{\"id\":0}\n{\"id\":1,\"pad\":\"" + "x".repeat(MAX_LINE_BYTES) + "\"}\n{\"id\":2}\n";
+
+        try (FileChannel channel = FileChannel.open(write("a.ndjson", content))) {
+            Collected c = readAll(channel, MappedNdjsonReader.split(channel, 1));
+
+            assertThat(c.records).containsExactly(0, 2);
+            assertThat(c.malformed).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void resumesASegmentFromAReportedChunkOffset() throws IOException {
+        Path file = write("a.ndjson", records(0, 40));
+
+        try (FileChannel channel = FileChannel.open(file)) {
+            List<MappedNdjsonReader.Segment> segments = MappedNdjsonReader.split(channel, 2);
+            MappedNdjsonReader.Segment second = segments.get(1);
+            int first = ids(channel, segments.get(0)).size();
+
+            Collected full = new Collected();
+            assertThat(MappedNdjsonReader.read(channel, second, 0, 3, MAX_LINE_BYTES, MAPPER, full)).isTrue();
+            // a chunk after every 3 lines, but none at the very end of the segment
+            assertThat(full.chunks).hasSize((40 - first - 1) / 3);
+
+            // resuming from any chunk offset reads exactly the lines after that chunk
+            for (int i = 0; i < full.chunks.size(); i++) {
+                Collected resumed = new Collected();
+                assertThat(MappedNdjsonReader.read(channel, second, full.chunks.get(i), 3, MAX_LINE_BYTES, MAPPER, resumed)).isTrue();
+                assertThat(resumed.records).isEqualTo(ids(first + 3 * (i + 1), 40));
+                assertThat(resumed.progress).isEqualTo(second.length() - full.chunks.get(i));
+                assertThat(resumed.chunks).allMatch(full.chunks::contains);
+            }
+
+            assertThatThrownBy(() -> MappedNdjsonReader.read(channel, second, second.length() + 1, 3, MAX_LINE_BYTES, MAPPER, new Collected()))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void stopsWhenCancelled() throws IOException {
+        try (FileChannel channel = FileChannel.open(write("a.ndjson", records(0, 10)))) {
+            Collected c = new Collected() {
+                @Override
+                public boolean cancelled() {
+                    return records.size() == 4;
+                }
+            };
+
+            assertThat(MappedNdjsonReader.read(channel, MappedNdjsonReader.split(channel, 1).get(0), 0, 0,
+                    MAX_LINE_BYTES, MAPPER, c)).isFalse();
+            assertThat(c.records).isEqualTo(ids(0, 4));
+            assertThat(c.chunks).isEmpty();
+        }
+    }
+
+    private static void assertContiguous(List<MappedNdjsonReader.Segment> segments, long size) {
+        long start = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            MappedNdjsonReader.Segment s = segments.get(i);
+            assertThat(s.getIndex()).isEqualTo(i);
+            assertThat(s.getStart()).isEqualTo(start);
+            assertThat(s.getEnd()).isGreaterThan(s.getStart());
+            start = s.getEnd();
+        }
+        assertThat(start).isEqualTo(size);
+    }
+
+    private static Collected readAll(FileChannel channel, List<MappedNdjsonReader.Segment> segments) throws IOException {
+        Collected c = new Collected();
+        for (MappedNdjsonReader.Segment s : segments) {
+            assertThat(MappedNdjsonReader.read(channel, s, 0, 0, MAX_LINE_BYTES, MAPPER, c)).isTrue();
+        }
+        return c;
+    }
+
+    private static List<Integer> ids(FileChannel channel, MappedNdjsonReader.Segment segment) throws IOException {
+        return readAll(channel, List.of(segment)).records;
+    }
+
+    private static byte byteAt(FileChannel channel, long pos) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(1);
+        channel.read(b, pos);
+        return b.get(0);
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(dir.resolve(name), content, StandardCharsets.UTF_8);
+    }
+
+    private static String records(int from, int to) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = from; i < to; i++) sb.append("{\"id\":").append(i).append(",\"name\":\"n").append(i).append("\"}\n");
+        return sb.toString();
+    }
+
+    private static List<Integer> ids(int from, int to) {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = from; i < to; i++) ids.add(i);
+        return ids;
+    }
+
+    private static class Collected implements MappedNdjsonReader.RecordHandler {
+        final List<Integer> records = new ArrayList<>();
+        final List<Long> chunks = new ArrayList<>();
+        int malformed;
+        long progress;
+
+        @Override
+        public void record(Map<String, Object> record) {
+            records.add((Integer) record.get("id"));
+        }
+
+        @Override
+        public void malformed() {
+            malformed++;
+        }
+
+        @Override
+        public void progress(long bytes) {
+            progress += bytes;
+        }
+
+        @Override
+        public void chunk(long offset) {
+            chunks.add(offset);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.mapping_service.service;
+
+import com.example.mapping_service.model.FieldMapping;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MappingPlanTest {
+
+    private final MappingService service = new MappingService();
+
+    @Test
+    void nestedWriteAfterParentReplacesTheParentValue() {
+        Map<String, Object> result = service.applyMappings(Map.of("a", "A", "b", "B"),
+                List.of(direct("a", "t"), direct("b", "t.y")));
+
+        assertThat(result).isEqualTo(Map.of("t", Map.of("y", "B")));
+    }
+
+    @Test
+    void parentWriteAfterNestedWriteDiscardsTheNestedValue() {
+        Map<String, Object> result = service.applyMappings(Map.of("a", "A", "b", "B"),
+                List.of(direct("b", "t.y"), direct("a", "t")));
+
+        assertThat(result).isEqualTo(Map.of("t", "A"));
+    }
+
+    @Test
+    void nestedWriteIntoCopiedObjectMergesIntoACopy() {
+        Map<String, Object> a = new LinkedHashMap<>(Map.of("x", 1));
+        Map<String, Object> result = service.applyMappings(Map.of("a", a, "b", "B"),
+                List.of(direct("a", "t"), direct("b", "t.y")));
+
+        assertThat(result).isEqualTo(Map.of("t", Map.of("x", 1, "y", "B")));
+        assertThat(a).isEqualTo(Map.of("x", 1));
+    }
+
+    @Test
+    void wildcardsBuildOneElementPerSourceElement() {
+        Map<String, Object> source = Map.of(
+                "customer", Map.of("id", "C1"),
+                "items", List.of(Map.of("price", 10, "sku", "A"), Map.of("price", 20, "sku", "B")));
+
+        Map<String, Object> result = service.applyMappings(source, List.of(
+                direct("items[*].price", "lines[*].amount"),
+                direct("items[*].sku", "lines[*].sku"),
+                direct("customer.id", "lines[*].customerId")));
+
+        assertThat(result).isEqualTo(Map.of("lines", List.of(
+                Map.of("amount", 10, "sku", "A", "customerId", "C1"),
+                Map.of("amount", 20, "sku", "B", "customerId", "C1"))));
+    }
+
+    @Test
+    void nestedWildcardsKeepBothLevels() {
+        Map<String, Object> source = Map.of("orders", List.of(
+                Map.of("lines", List.of(Map.of("sku", "A"), Map.of("sku", "B"))),
+                Map.of("lines", List.of(Map.of("sku", "C")))));
+
+        Map<String, Object> result = service.applyMappings(source,
+                List.of(direct("orders[*].lines[*].sku", "out[*].skus[*]")));
+
+        assertThat(result).isEqualTo(Map.of("out", List.of(
+                Map.of("skus", List.of("A", "B")),
+                Map.of("skus", List.of("C")))));
+    }
+
+    @Test
+    void nestedWildcardIntoFewerTargetLevelsKeepsInnerArrays() {
+        Map<String, Object> source = Map.of("matrix", List.of(List.of(1, 2), List.of(3)));
+
+        Map<String, Object> result = service.applyMappings(source,
+                List.of(direct("matrix[*][*]", "rows[*]")));
+
+        assertThat(result).isEqualTo(Map.of("rows", List.of(List.of(1, 2), List.of(3))));
+    }
+
+    @Test
+    void fixedIndexesReadAndWriteSingleElements() {
+        Map<String, Object> source = Map.of(
+                "contacts", List.of(Map.of("phone", "111"), Map.of("phone", "222")),
+                "first", "F",
+                "third", "T");
+
+        Map<String, Object> result = service.applyMappings(source, List.of(
+                direct("contacts[1].phone", "phone"),
+                direct("contacts[5].phone", "missing"),
+                direct("first", "tags[0]"),
+                direct("third", "tags[2]")));
+
+        assertThat(result).containsOnlyKeys("phone", "tags");
+        assertThat(result.get("phone")).isEqualTo("222");
+        assertThat(result.get("tags")).isEqualTo(Arrays.asList("F", null, "T"));
+    }
+
+    @Test
+    void malformedIndexesAreRejected() {
+        for (String path : List.of("a[x]", "a[-1]", "a[1", "a[1]b", "a[99999999999]", "[0].a")) {
+            assertThatThrownBy(() -> MappingPlan.compile(List.of(direct(path, "t"))))
+                    .as(path)
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> MappingPlan.compile(List.of(direct("s", path))))
+                    .as(path)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void trailingDotsAreIgnored() {
+        Map<String, Object> result = service.applyMappings(Map.of("customer", Map.of("name", "N"), "id", 1),
+                List.of(direct("customer.name.", "person.name."), direct("id", "person.id..")));
+
+        assertThat(result).isEqualTo(Map.of("person", Map.of("name", "N", "id", 1)));
+        for (String path : List.of(".", "..")) {
+            assertThatThrownBy(() -> MappingPlan.compile(List.of(direct("s", path))))
+                    .as(path)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void targetIndexBeyondTheLimitIsRejected() {
+        assertThatThrownBy(() -> MappingPlan.compile(List.of(direct("s", "t[2000000000]"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("t[2000000000]");
+    }
+
+    @Test
+    void planIsReusableAcrossRecords() {
+        MappingPlan plan = service.compile(List.of(direct("items[*].sku", "skus[*]")));
+        List<Object> many = new ArrayList<>(List.of(Map.of("sku", "A"), Map.of("sku", "B")));
+
+        assertThat(service.apply(plan, Map.of("items", many))).isEqualTo(Map.of("skus", List.of("A", "B")));
+        assertThat(service.apply(plan, Map.of("items", List.of(Map.of("sku", "C"))))).isEqualTo(Map.of("skus", List.of("C")));
+        assertThat(service.apply(plan, Map.of())).isEqualTo(Map.of());
+    }
+
+    @Test
+    void sharedSourcePrefixesFeedEveryMappingBelowThem() {
+        Map<String, Object> address = Map.of("city", "Pécs", "zip", "7621");
+        Map<String, Object> source = Map.of("customer", Map.of("name", "Nagy János", "address", address));
+
+        Map<String, Object> result = service.applyMappings(source, List.of(
+                direct("customer.address.city", "city"),
+                direct("customer.address", "address"),
+                direct("customer.name", "name"),
+                direct("customer.address.zip", "zip"),
+                direct("customer.address.city", "shipping.city"),
+                direct("customer.address.country", "country")));
+
+        assertThat(result).containsOnlyKeys("city", "address", "name", "zip", "shipping");
+        assertThat(result.get("city")).isEqualTo("Pécs");
+        assertThat(result.get("address")).isEqualTo(address);
+        assertThat(result.get("name")).isEqualTo("Nagy János");
+        assertThat(result.get("zip")).isEqualTo("7621");
+        assertThat(result.get("shipping")).isEqualTo(Map.of("city", "Pécs"));
+    }
+
+    @Test
+    void wildcardAndFixedIndexesOnTheSameArray() {
+        Map<String, Object> source = Map.of("items", List.of(
+                Map.of("sku", "A", "price", 10),
+                Map.of("sku", "B", "price", 20),
+                Map.of("sku", "C", "price", 30)));
+
+        Map<String, Object> result = service.applyMappings(source, List.of(
+                direct("items[*].sku", "skus[*]"),
+                direct("items[0].sku", "first"),
+                direct("items[*].price", "prices[*]"),
+                direct("items[2].price", "last"),
+                direct("items[1]", "second")));
+
+        assertThat(result.get("skus")).isEqualTo(List.of("A", "B", "C"));
+        assertThat(result.get("prices")).isEqualTo(List.of(10, 20, 30));
+        assertThat(result.get("first")).isEqualTo("A");
+        assertThat(result.get("last")).isEqualTo(30);
+        assertThat(result.get("second")).isEqualTo(Map.of("sku", "B", "price", 20));
+    }
+
+    @Test
+    void siblingAndNestedWildcardsDoNotSeeEachOthersValues() {
+        Map<String, Object> source = Map.of(
+                "orders", List.of(
+                        Map.of("id", 1, "lines", List.of(Map.of("sku", "A"), Map.of("sku", "B"))),
+                        Map.of("id", 2),
+                        Map.of("id", 3, "lines", List.of(Map.of("qty", 5)))),
+                "tags", List.of("x", "y"));
+
+        Map<String, Object> result = service.applyMappings(source, List.of(
+                direct("orders[*].id", "orders[*].id"),
+                direct("orders[*].lines[*].sku", "orders[*].skus[*]"),
+                direct("tags[*]", "tags[*]")));
+
+        assertThat(result.get("tags")).isEqualTo(List.of("x", "y"));
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> orders = (List<Map<String, Object>>) result.get("orders");
+        assertThat(orders).hasSize(3);
+        assertThat(orders.get(0)).isEqualTo(Map.of("id", 1, "skus", List.of("A", "B")));
+        assertThat(orders.get(1).get("id")).isEqualTo(2);
+        assertThat(orders.get(1)).doesNotContainKey("skus");
+        assertThat(orders.get(2).get("id")).isEqualTo(3);
+        assertThat((List<?>) orders.get(2).get("skus")).containsOnlyNulls();
+    }
+
+    static FieldMapping direct(String source, String target) {
+        return new FieldMapping(source, target, "direct", 1.0);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.mapping_service.service;
+
+import com.example.mapping_service.model.FieldMapping;
+import com.example.mapping_service.model.TransformError;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappingServiceTest {
+
+    private final MappingService service = new MappingService();
+
+    @Test
+    void convertsAndKeepsValidDates() {
+        TransformErrors errors = new TransformErrors(10, 10);
+        Map<String, Object> result = service.applyMappings(Map.of("iso", "2024-02-29", "display", "29/02/2024"),
+                List.of(date("iso", "a"), date("display", "b")), errors);
+
+        assertThat(result).isEqualTo(Map.of("a", "29/02/2024", "b", "29/02/2024"));
+        assertThat(errors.getCount()).isZero();
+        assertThat(errors.getErrors()).isEmpty();
+    }
+
+    @Test
+    void invalidDateIsReportedAndPassedThrough() {
+        TransformErrors errors = new TransformErrors(10, 10);
+        Map<String, Object> result = service.applyMappings(Map.of("name", "N", "born", "2023-02-30"),
+                List.of(direct("name", "name"), date("born", "birthDate")), errors);
+
+        assertThat(result).isEqualTo(Map.of("name", "N", "birthDate", "2023-02-30"));
+        assertThat(errors.getCount()).isEqualTo(1);
+        TransformError error = errors.getErrors().get(0);
+        assertThat(error.getMappingIndex()).isEqualTo(1);
+        assertThat(error.getSourcePath()).isEqualTo("born");
+        assertThat(error.getCode()).isEqualTo(TransformErrors.INVALID_DATE);
+        assertThat(error.getMessage()).contains("2023-02-30");
+    }
+
+    @Test
+    void nonStringDateIsReportedAndPassedThrough() {
+        TransformErrors errors = new TransformErrors(10, 10);
+        Map<String, Object> result = service.applyMappings(Map.of("born", 20240101), List.of(date("born", "d")), errors);
+
+        assertThat(result).isEqualTo(Map.of("d", 20240101));
+        assertThat(errors.getErrors()).extracting(TransformError::getCode).containsExactly(TransformErrors.NOT_A_STRING);
+    }
+
+    @Test
+    void invalidDatesInsideArraysAreReportedPerElement() {
+        TransformErrors errors = new TransformErrors(10, 10);
+        Map<String, Object> result = service.applyMappings(
+                Map.of("events", List.of(Map.of("on", "2024-01-02"), Map.of("on", "soon"), Map.of("on", "later"))),
+                List.of(date("events[*].on", "dates[*]")), errors);
+
+        assertThat(result).isEqualTo(Map.of("dates", Arrays.asList("02/01/2024", "soon", "later")));
+        assertThat(errors.getCount()).isEqualTo(2);
+    }
+
+    @Test
+    void everyFailureIsCountedButOnlyTheFirstAreKept() {
+        TransformErrors errors = new TransformErrors(2, 1);
+        service.applyMappings(Map.of("a", "x", "b", "y", "c", "z"),
+                List.of(date("a", "a"), date("b", "b"), date("c", "c")), errors);
+
+        assertThat(errors.getCount()).isEqualTo(3);
+        assertThat(errors.getErrors()).hasSize(2);
+        assertThat(errors.getErrors().get(0).getMessage()).isNotNull();
+        assertThat(errors.getErrors().get(1).getMessage()).isNull();
+
+        errors.reset();
+        assertThat(errors.getCount()).isZero();
+        assertThat(errors.getErrors()).isEmpty();
+    }
+
+    @Test
+    void countingCollectorKeepsNoErrors() {
+        TransformErrors errors = TransformErrors.counting();
+        service.applyMappings(Map.of("a", "x"), List.of(date("a", "a")), errors);
+
+        assertThat(errors.getCount()).isEqualTo(1);
+        assertThat(errors.getErrors()).isEmpty();
+    }
+
+    @Test
+    void longValuesAreAbbreviatedInMessages() {
+        TransformErrors errors = new TransformErrors(1, 1);
+        service.applyMappings(Map.of("a", "x".repeat(1000)), List.of(date("a", "a")), errors);
+
+        assertThat(errors.getErrors().get(0).getMessage()).hasSizeLessThan(200).endsWith("...");
+    }
+
+    private static FieldMapping direct(String source, String target) {
+        return new FieldMapping(source, target, "direct", 1.0);
+    }
+
+    private static FieldMapping date(String source, String target) {
+        return new FieldMapping(source, target, "date_format", 1.0);
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.mapping_service.service;
+
+import com.example.mapping_service.model.FieldMapping;
+import com.example.mapping_service.model.JobRequest;
+import com.example.mapping_service.model.JobStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransformJobServiceTest {
+
+    private static final int MAX_LINE_BYTES = 256;
+    // big enough that a job is still running when the test cancels it after its first chunks
+    private static final int BIG_RECORDS = 200_000;
+
+    @TempDir
+    Path root;
+
+    private TransformJobService service;
+
+    @BeforeEach
+    void setUp() {
+        service = newService(root);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void createsTheJobsRootOnFirstSubmit() throws Exception {
+        Path lazy = root.resolve("lazy");
+        TransformJobService other = newService(lazy);
+        try {
+            assertThat(lazy).doesNotExist();
+            assertThatThrownBy(() -> other.submit(request("in.ndjson", "out.ndjson", mappings("id"))))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThat(lazy).isDirectory();
+        } finally {
+            other.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsInvalidRequests() throws Exception {
+        Files.writeString(root.resolve("in.ndjson"), "{\"id\":1}\n");
+        Files.writeString(root.resolve("out.ndjson.part-00000"), "");
+        List<FieldMapping> withNull = new ArrayList<>(mappings("id"));
+        withNull.add(null);
+
+        List<JobRequest> invalid = List.of(
+                request(null, "out.ndjson", mappings("id")),
+                request("missing.ndjson", "out.ndjson", mappings("id")),
+                request("../in.ndjson", "out.ndjson", mappings("id")),
+                request(root.getParent().resolve("in.ndjson").toString(), "out.ndjson", mappings("id")),
+                request("in.ndjson", "../out.ndjson", mappings("id")),
+                request("in.ndjson", "in.ndjson", mappings("id")),
+                request("out.ndjson.part-00000", "out.ndjson", mappings("id")),
+                request("in.ndjson", "out.ndjson.checkpoint", mappings("id")),
+                request("in.ndjson", "out.ndjson", List.of()),
+                request("in.ndjson", "out.ndjson", withNull));
+        for (JobRequest r : invalid) {
+            assertThatThrownBy(() -> service.submit(r))
+                    .as(r.getInputPath() + " -> " + r.getOutputPath())
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+        assertThat(service.list()).isEmpty();
+    }
+
+    @Test
+    void rejectsJobsOverwritingAnActiveJobsFiles() throws Exception {
+        writeRecords(root.resolve("big.ndjson"), BIG_RECORDS);
+        Files.writeString(root.resolve("small.ndjson"), "{\"id\":1}\n");
+        JobStatus running = service.submit(request("big.ndjson", "big.out", mappings("id", "name"), 1000, 1));
+        awaitStatus(running.getId(), s -> s.getChunksCompleted() > 0);
+
+        List<JobRequest> conflicting = List.of(
+                // writes the running job's input, or a name the running job reads or writes
+                request("small.ndjson", "big.ndjson", mappings("id")),
+                request("small.ndjson", "big", mappings("id")),
+                request("small.ndjson", "big.out", mappings("id")),
+                request("small.ndjson", "big.out.part-00000", mappings("id")),
+                // reads what the running job writes
+                request("big.out", "copy.ndjson", mappings("id")));
+        try {
+            for (JobRequest r : conflicting) {
+                assertThatThrownBy(() -> service.submit(r))
+                        .as(r.getInputPath() + " -> " + r.getOutputPath())
+                        .isInstanceOf(IllegalStateException.class);
+            }
+            // the same input with another output is fine
+            JobStatus reader = service.submit(request("big.ndjson", "other.out", mappings("id")));
+            service.cancel(reader.getId());
+        } finally {
+            service.cancel(running.getId());
+        }
+    }
+
+    @Test
+    void transformsInChunksAndCountsFailedLines() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            lines.add(String.format("{\"id\":%d,\"name\":\"n%d\",\"extra\":true}", i, i));
+            if (i == 3) lines.add("");
+            if (i == 7) lines.add("{\"id\":");
+            if (i == 11) lines.add("not json");
+            if (i == 13) lines.add("[1,2]");
+            if (i == 17) lines.add("{\"id\":" + " ".repeat(MAX_LINE_BYTES) + "1}");
+            if (i == 19) lines.add("\r");
+        }
+        Files.writeString(root.resolve("in.ndjson"), String.join("\n", lines) + "\n");
+
+        for (int parallelism : new int[]{1, 3}) {
+            String output = "out-" + parallelism + ".ndjson";
+            JobStatus done = run(request("in.ndjson", output, mappings("id", "name"), 10, parallelism));
+
+            assertThat(done.getState()).as("parallelism " + parallelism).isEqualTo("COMPLETED");
+            assertThat(done.getRecordsProcessed()).isEqualTo(25);
+            assertThat(done.getRecordsFailed()).isEqualTo(4);
+            assertThat(done.isResumed()).isFalse();
+            if (parallelism == 1) assertThat(done.getChunksCompleted()).isEqualTo(3);
+            List<String> out = Files.readAllLines(root.resolve(output));
+            assertThat(out).hasSize(25);
+            assertThat(out.get(0)).isEqualTo("{\"id\":0,\"name\":\"n0\"}");
+            assertThat(out.get(24)).isEqualTo("{\"id\":24,\"name\":\"n24\"}");
+            assertThat(root.resolve(output + ".checkpoint")).doesNotExist();
+            try (var files = Files.list(root)) {
+                assertThat(files.map(p -> p.getFileName().toString())).noneMatch(n -> n.contains(".part-"));
+            }
+        }
+    }
+
+    @Test
+    void resumesAfterCancellation() throws Exception {
+        writeRecords(root.resolve("big.ndjson"), BIG_RECORDS);
+
+        for (int parallelism : new int[]{1, 3}) {
+            String output = "resumed-" + parallelism + ".ndjson";
+            JobRequest request = request("big.ndjson", output, mappings("id", "name"), 1000, parallelism);
+            interrupt(request);
+
+            JobStatus resumed = run(request);
+            assertThat(resumed.getState()).as("parallelism " + parallelism).isEqualTo("COMPLETED");
+            assertThat(resumed.isResumed()).isTrue();
+            assertThat(resumed.getRecordsProcessed()).isEqualTo(BIG_RECORDS);
+
+            String reference = "reference-" + parallelism + ".ndjson";
+            assertThat(run(request("big.ndjson", reference, mappings("id", "name"), 1000, parallelism)).isResumed()).isFalse();
+            assertThat(Files.mismatch(root.resolve(output), root.resolve(reference))).isEqualTo(-1L);
+        }
+    }
+
+    @Test
+    void startsOverWhenMappingsChanged() throws Exception {
+        writeRecords(root.resolve("big.ndjson"), BIG_RECORDS);
+
+        for (int parallelism : new int[]{1, 3}) {
+            String output = "changed-" + parallelism + ".ndjson";
+            interrupt(request("big.ndjson", output, mappings("id", "name"), 1000, parallelism));
+
+            JobStatus done = run(request("big.ndjson", output, mappings("id"), 1000, parallelism));
+            assertThat(done.getState()).isEqualTo("COMPLETED");
+            assertThat(done.isResumed()).isFalse();
+            assertThat(done.getRecordsProcessed()).isEqualTo(BIG_RECORDS);
+            List<String> out = Files.readAllLines(root.resolve(output));
+            assertThat(out).as("parallelism " + parallelism).hasSize(BIG_RECORDS).noneMatch(line -> line.contains("name"));
+        }
+    }
+
+    @Test
+    void startsOverWhenChunkSizeChanged() throws Exception {
+        writeRecords(root.resolve("big.ndjson"), BIG_RECORDS);
+        interrupt(request("big.ndjson", "out.ndjson", mappings("id"), 1000, 1));
+
+        JobStatus done = run(request("big.ndjson", "out.ndjson", mappings("id"), 500, 1));
+        assertThat(done.isResumed()).isFalse();
+        assertThat(Files.readAllLines(root.resolve("out.ndjson"))).hasSize(BIG_RECORDS);
+    }
+
+    // runs the job until it has checkpointed a few chunks, then cancels it
+    private void interrupt(JobRequest request) throws Exception {
+        JobStatus started = service.submit(request);
+        awaitStatus(started.getId(), s -> s.getChunksCompleted() >= 2 || !"QUEUED".equals(s.getState()) && !"RUNNING".equals(s.getState()));
+        service.cancel(started.getId());
+        JobStatus cancelled = awaitStatus(started.getId(), s -> !"RUNNING".equals(s.getState()));
+        assertThat(cancelled.getState()).as("job finished before it could be cancelled").isEqualTo("CANCELLED");
+        assertThat(root.resolve(request.getOutputPath() + ".checkpoint")).exists();
+    }
+
+    private JobStatus run(JobRequest request) throws Exception {
+        JobStatus started = service.submit(request);
+        return awaitStatus(started.getId(), s -> !"QUEUED".equals(s.getState()) && !"RUNNING".equals(s.getState()));
+    }
+
+    private JobStatus awaitStatus(String id, Predicate<JobStatus> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 60_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            JobStatus status = service.get(id);
+            if (condition.test(status)) return status;
+            Thread.sleep(1);
+        }
+        throw new AssertionError("job " + id + " timed out in state " + service.get(id).getState());
+    }
+
+    private static TransformJobService newService(Path root) {
+        return new TransformJobService(new MappingService(), null, 2, 16, 4, root.toString(), 60, MAX_LINE_BYTES);
+    }
+
+    private static void writeRecords(Path file, int count) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < count; i++) {
+                w.write("{\"id\":" + i + ",\"name\":\"name " + i + "\",\"tags\":[\"a\",\"b\"],\"nested\":{\"x\":" + i + "}}\n");
+            }
+        }
+    }
+
+    private static JobRequest request(String input, String output, List<FieldMapping> mappings) {
+        return new JobRequest(input, output, null, mappings, 0);
+    }
+
+    private static JobRequest request(String input, String output, List<FieldMapping> mappings, int chunkSize, int parallelism) {
+        JobRequest request = new JobRequest(input, output, null, mappings, chunkSize);
+        request.setParallelism(parallelism);
+        return request;
+    }
+
+    private static List<FieldMapping> mappings(String... fields) {
+        return Arrays.stream(fields).map(f -> new FieldMapping(f, f, "direct", 1.0)).toList();
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.mapping_service.service;
+
+import com.example.mapping_service.model.ValidationResult;
+import com.example.mapping_service.model.ValidationRule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class ValidationServiceTest {
+
+    private final ValidationService service = new ValidationService("local", "");
+
+    @Test
+    void findsFieldsByPathOrByNameAnywhere() {
+        List<ValidationResult> results = service.validate(Map.of(
+                "contact", Map.of("emailAddress", "not an email"),
+                "phones", List.of(Map.of("mobile", "+36 (1) 234-5678"))), service.defaultRules());
+
+        assertThat(results).extracting(ValidationResult::getField, ValidationResult::isValid, ValidationResult::getError)
+                .containsExactly(
+                        tuple("email", false, "invalid email format"),
+                        tuple("phone", true, null));
+
+        ValidationService.CompiledRuleSet nested = service.compile(List.of(
+                new ValidationRule("customer.email", null, "required", null, null, null, null)));
+        assertThat(service.validate(Map.of("customer", Map.of("email", "a@b.com")), nested))
+                .extracting(ValidationResult::isValid).containsExactly(true);
+        // the last path segment is also looked up by name
+        assertThat(service.validate(Map.of("other", Map.of("email", "a@b.com")), nested))
+                .extracting(ValidationResult::isValid).containsExactly(true);
+    }
+
+    @Test
+    void defaultRulesFallBackToScanningValues() {
+        List<ValidationResult> results = service.validate(Map.of(
+                "notes", "call me",
+                "contact", List.of("someone@example.com", "+36 1 234 5678")), service.defaultRules());
+
+        assertThat(results).extracting(ValidationResult::getField, ValidationResult::isValid)
+                .containsExactly(tuple("email", true), tuple("phone", true));
+
+        assertThat(service.validate(Map.of("notes", "nothing here"), service.defaultRules())).isEmpty();
+    }
+
+    @Test
+    void customRulesDoNotScanValues() {
+        ValidationService.CompiledRuleSet rules = service.compile(List.of(
+                new ValidationRule("email", null, "pattern", ".+@.+", null, null, null)));
+
+        assertThat(service.validate(Map.of("contact", "someone@example.com"), rules)).isEmpty();
+    }
+
+    @Test
+    void keepsTheFirstFailurePerField() {
+        assertThat(service.validate(Map.of("phone", "123"), service.defaultRules()))
+                .extracting(ValidationResult::getField, ValidationResult::isValid, ValidationResult::getError)
+                .containsExactly(tuple("phone", false, "phone number has invalid length"));
+        assertThat(service.validate(Map.of("phone", "abc"), service.defaultRules()))
+                .extracting(ValidationResult::getError)
+                .containsExactly("invalid characters in phone number");
+    }
+
+    @Test
+    void patternsMustMatchTheWholeValue() {
+        ValidationService.CompiledRuleSet rules = service.compile(List.of(
+                new ValidationRule("code", null, "pattern", "[0-9]+", null, null, null)));
+
+        assertThat(service.validate(Map.of("code", "123"), rules)).extracting(ValidationResult::isValid).containsExactly(true);
+        assertThat(service.validate(Map.of("code", "123abc"), rules))
+                .extracting(ValidationResult::isValid, ValidationResult::getError)
+                .containsExactly(tuple(false, "does not match pattern"));
+        assertThat(service.validate(Map.of("code", 123), rules))
+                .extracting(ValidationResult::isValid).containsExactly(false);
+    }
+
+    @Test
+    void checksMinimumAgeOfIsoAndDayMonthYearDates() {
+        LocalDate tenYearsAgo = LocalDate.now().minusYears(10);
+
+        assertThat(errorFor("dob", "1980-02-29")).isNull();
+        assertThat(errorFor("dateOfBirth", "29/02/1980")).isNull();
+        assertThat(errorFor("birthDate", "31/02/1980")).isEqualTo("invalid date format, expected YYYY-MM-DD");
+        assertThat(errorFor("birthDate", "1980-13-01")).isEqualTo("invalid date format, expected YYYY-MM-DD");
+        assertThat(errorFor("birthDate", tenYearsAgo.toString())).isEqualTo("must be at least 18 years old");
+    }
+
+    @Test
+    void requiredRejectsMissingAndBlankValues() {
+        ValidationService.CompiledRuleSet rules = service.compile(List.of(
+                new ValidationRule("id", null, "required", null, null, null, null)));
+
+        assertThat(service.validate(Map.of(), rules)).extracting(ValidationResult::getError)
+                .containsExactly("missing required field");
+        assertThat(service.validate(Map.of("id", " "), rules)).extracting(ValidationResult::isValid).containsExactly(false);
+        assertThat(service.validate(Map.of("id", 0), rules)).extracting(ValidationResult::isValid).containsExactly(true);
+    }
+
+    @Test
+    void rejectsInvalidRules() {
+        List<ValidationRule> invalid = List.of(
+                new ValidationRule("code", null, "pattern", "[0-9", null, null, null),
+                new ValidationRule("code", null, "pattern", null, null, null, null),
+                new ValidationRule("code", null, "luhn", null, null, null, null),
+                new ValidationRule("code", null, null, null, null, null, null),
+                new ValidationRule(null, null, "required", null, null, null, null),
+                new ValidationRule("", null, "required", null, null, null, null));
+        for (ValidationRule rule : invalid) {
+            assertThatThrownBy(() -> service.compile(List.of(rule)))
+                    .as(rule.getField() + " " + rule.getType() + " " + rule.getPattern())
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void remoteBackendRejectsCustomRules() {
+        ValidationService remote = new ValidationService("remote", "http://localhost:1");
+
+        assertThat(remote.compile(null).size()).isZero();
+        assertThatThrownBy(() -> remote.compile(List.of(new ValidationRule("id", null, "required", null, null, null, null))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private String errorFor(String field, String value) {
+        // the phone scan also picks up dates (enough digits), so only look at the birthDate result
+        List<ValidationResult> results = service.validate(Map.of(field, value), service.defaultRules());
+        assertThat(results).extracting(ValidationResult::getField).contains("birthDate");
+        return results.stream().filter(r -> r.getField().equals("birthDate")).findFirst().orElseThrow().getError();
+    }
+}
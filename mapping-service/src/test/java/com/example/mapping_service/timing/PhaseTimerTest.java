@@ -0,0 +1,103 @@
+package com.example.mapping_service.timing;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class PhaseTimerTest {
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void tearDown() {
+        PhaseTimer.end();
+    }
+
+    @Test
+    void addsUpRepeatedPhasesInFirstSeenOrder() throws Exception {
+        PhaseTimer timer = PhaseTimer.begin("POST /mapping/transform", true);
+        try (PhaseTimer.Phase p = PhaseTimer.start("plan")) {
+            Thread.sleep(2);
+        }
+        try (PhaseTimer.Phase p = PhaseTimer.start("transform")) {
+            Thread.sleep(2);
+        }
+        try (PhaseTimer.Phase p = PhaseTimer.start("plan")) {
+            Thread.sleep(2);
+        }
+
+        String header = timer.serverTiming(12_345_678);
+        assertThat(header).matches("plan;dur=\\d+\\.\\d\\d, transform;dur=\\d+\\.\\d\\d, total;dur=12\\.35");
+        double plan = Double.parseDouble(header.substring("plan;dur=".length(), header.indexOf(',')));
+        assertThat(plan).isGreaterThanOrEqualTo(4.0);
+    }
+
+    @Test
+    void openPhaseLastsUntilTheNextOneOrClose() {
+        PhaseTimer timer = PhaseTimer.begin("POST /mapping/transform", true);
+        PhaseTimer.open("parse");
+        PhaseTimer.open("serialize");
+        PhaseTimer.closeOpen();
+        PhaseTimer.closeOpen();
+
+        assertThat(timer.serverTiming(0)).matches("parse;dur=[0-9.]+, serialize;dur=[0-9.]+, total;dur=0\\.00");
+    }
+
+    @Test
+    void collectsNothingWhenDisabledOrOutsideARequest() {
+        try (PhaseTimer.Phase p = PhaseTimer.start("plan")) {
+            PhaseTimer.open("parse");
+            PhaseTimer.closeOpen();
+        }
+
+        PhaseTimer timer = PhaseTimer.begin("POST /mapping/transform", false);
+        try (PhaseTimer.Phase p = PhaseTimer.start("plan")) {
+            PhaseTimer.open("parse");
+        }
+        PhaseTimer.closeOpen();
+        assertThat(timer.serverTiming(1_000_000)).isEqualTo("total;dur=1.00");
+    }
+
+    @Test
+    void recordsJfrEventsForPhasesAndTheRequest() throws Exception {
+        Path file = dir.resolve("timing.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.example.mapping.Phase").withThreshold(Duration.ZERO);
+            recording.enable("com.example.mapping.Request").withThreshold(Duration.ZERO);
+            recording.start();
+
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/mapping/transform");
+            request.setServletPath("/mapping/transform");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            new ServerTimingFilter(false).doFilter(request, response, (req, res) -> {
+                try (PhaseTimer.Phase p = PhaseTimer.start("plan")) {
+                    ((MockHttpServletResponse) res).setStatus(202);
+                }
+            });
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertThat(events).filteredOn(e -> e.getEventType().getName().equals("com.example.mapping.Phase"))
+                .extracting(e -> e.getString("endpoint"), e -> e.getString("phase"))
+                .containsExactly(tuple("POST /mapping/transform", "plan"));
+        assertThat(events).filteredOn(e -> e.getEventType().getName().equals("com.example.mapping.Request"))
+                .extracting(e -> e.getString("endpoint"), e -> e.getInt("status"))
+                .containsExactly(tuple("POST /mapping/transform", 202));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.mapping_service.timing;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "mapping.timing.server-timing=true")
+@AutoConfigureMockMvc
+class ServerTimingFilterTest {
+
+    private static final String TRANSFORM = """
+            {"sourceData": {"customer": {"name": "Nagy János"}, "items": [{"sku": "A"}, {"sku": "B"}]},
+             "mappings": [{"sourcePath": "customer.name", "targetPath": "name", "transformationType": "direct"},
+                          {"sourcePath": "items[*].sku", "targetPath": "skus[*]", "transformationType": "direct"}]}
+            """;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Test
+    void addsTheHeaderWhenEnabled() throws Exception {
+        mvc.perform(transform())
+                .andExpect(status().isOk())
+                .andExpect(header().string(ServerTimingFilter.HEADER, matchesPattern("(\\w+;dur=\\d+\\.\\d\\d, )*total;dur=\\d+\\.\\d\\d")))
+                .andExpect(header().string(ServerTimingFilter.HEADER, containsString("transform;dur=")));
+    }
+
+    @Test
+    void leavesTheResponseBodyAlone() throws Exception {
+        MvcResult with = filtered(true).perform(transform()).andReturn();
+        MvcResult without = filtered(false).perform(transform()).andReturn();
+
+        assertThat(with.getResponse().getHeader(ServerTimingFilter.HEADER)).contains("plan;dur=");
+        assertThat(without.getResponse().getHeader(ServerTimingFilter.HEADER)).isNull();
+        assertThat(with.getResponse().getContentAsByteArray()).isNotEmpty()
+                .isEqualTo(without.getResponse().getContentAsByteArray());
+        assertThat(with.getResponse().getContentType()).isEqualTo(without.getResponse().getContentType());
+        // buffering lets the filter set Content-Length as well
+        assertThat(with.getResponse().getContentLength()).isEqualTo(with.getResponse().getContentAsByteArray().length);
+    }
+
+    // MockMvc with only the timing filter in front of the controllers
+    private MockMvc filtered(boolean serverTiming) {
+        return MockMvcBuilders.webAppContextSetup(context).addFilters(new ServerTimingFilter(serverTiming)).build();
+    }
+
+    private static RequestBuilder transform() {
+        return post("/mapping/transform").contentType(MediaType.APPLICATION_JSON).content(TRANSFORM);
+    }
+}